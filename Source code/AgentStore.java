@@ -0,0 +1,459 @@
+package consoleVersion1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * AgentStore keeps the Mode 1 agents as packed primitive columns instead of one Robot object
+ * per agent. Species constants live once in a SpeciesTable, and update() applies the same
+ * rules as RobotArena.updateRobots() with Predator and Prey by streaming through the columns.
+ * The arena supplies only the size and obstacles; its robot list is not used.
+ * <p>
+ * The store draws from one random stream, in column order, where RobotArena gives every
+ * robot its own stream, so the same seed gives a different run here than in any of the
+ * arena's tick modes. Runs of the store are reproducible among themselves.
+ * <p>
+ * The columns take BYTES_PER_AGENT bytes per agent and the prey grid about as much again
+ * once filled; AgentStoreBenchmark measures about half the heap of the robot list.
+ */
+public class AgentStore {
+    static final byte FLAG_MARKED = 1;   // eaten by a predator, removed when next visited
+    static final byte FLAG_REMOVED = 2;  // removed at the end of the current tick
+
+    /** Bytes of column storage used by each agent. */
+    public static final int BYTES_PER_AGENT = 4 * 8 + 4 + 2 + 1 + 1 + 1;
+
+    private final SpeciesTable species;
+    private final SpatialGrid preyGrid;
+    private final SimRandom random = new SimRandom();  // one stream for the store, ticked in order
+    private int size = 0;
+
+    private double[] x, y;
+    private double[] dirX, dirY;  // unit heading vector, the angle is only derived when read
+    private int[] id;
+    private short[] counter;    // survival ticks for preys, detection cooldown for predators
+    private byte[] stuck;
+    private byte[] kind;        // species index
+    private byte[] flags;
+
+    private double[] birthX = new double[16], birthY = new double[16], birthAngle = new double[16];
+    private int birthCount = 0;
+
+    /**
+     * Constructs an empty store with default species constants.
+     *
+     * @param capacity the initial number of agents that fit without growing
+     */
+    public AgentStore(int capacity) {
+        this(capacity, new SpeciesTable());
+    }
+
+    /**
+     * Constructs an empty store.
+     *
+     * @param capacity the initial number of agents that fit without growing
+     * @param species  the species constants
+     */
+    public AgentStore(int capacity, SpeciesTable species) {
+        this.species = species;
+        preyGrid = new SpatialGrid(species.getDetectionRange());
+        allocate(Math.max(capacity, 16));
+    }
+
+    /**
+     * Creates a store holding the same agents as a list of robots, in the same order.
+     *
+     * @param robots the robots to copy
+     * @return the new store
+     */
+    public static AgentStore fromRobots(ArrayList<Robot> robots) {
+        return fromRobots(robots, new SpeciesTable());
+    }
+
+    /**
+     * Creates a store holding the same agents as a list of robots, in the same order, that
+     * follows the given species constants.
+     *
+     * @param robots  the robots to copy
+     * @param species the species constants
+     * @return the new store
+     */
+    public static AgentStore fromRobots(ArrayList<Robot> robots, SpeciesTable species) {
+        AgentStore store = new AgentStore(robots.size(), species);
+        for (Robot r : robots) {
+            int i = store.append(SpeciesTable.of(r), r.getX(), r.getY(), r.getAngle(), r.getId());
+            store.stuck[i] = (byte) r.getStuckCounter();
+            if (r instanceof Prey) {
+                Prey p = (Prey) r;
+                store.counter[i] = (short) p.getSurvivalCounter();
+                if (p.isMarkedForRemoval()) {
+                    store.flags[i] = FLAG_MARKED;
+                }
+            } else {
+                store.counter[i] = (short) ((Predator) r).getDetectionCooldown();
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Creates a store holding the agents of a mapped snapshot, in the same order, streaming
+     * the mapped columns without building Robot objects. The store's random stream
+     * continues from the saved arena's.
+     *
+     * @param snapshot the mapped snapshot
+     * @return the new store
+     * @throws IOException if an agent has a species the file does not declare, or one the
+     *                     store's SpeciesTable has no column rules for, or a counter
+     *                     too large for the store's narrow columns
+     */
+    public static AgentStore fromSnapshot(MappedSnapshot snapshot) throws IOException {
+        int n = snapshot.size();
+        AgentStore store = new AgentStore(n);
+        int maxId = -1;
+        for (int i = 0; i < n; i++) {
+            store.x[i] = snapshot.getX(i);
+            store.y[i] = snapshot.getY(i);
+            store.dirX[i] = snapshot.getDirX(i);
+            store.dirY[i] = snapshot.getDirY(i);
+            store.id[i] = snapshot.getId(i);
+            store.counter[i] = (short) checkRange(snapshot.getCounter(i),
+                    Short.MIN_VALUE, Short.MAX_VALUE, "counter", i);
+            store.stuck[i] = (byte) checkRange(snapshot.getStuckCounter(i),
+                    Byte.MIN_VALUE, Byte.MAX_VALUE, "stuck counter", i);
+            int s = snapshot.getSpecies(i);
+            if (s != SpeciesTable.PREDATOR && s != SpeciesTable.PREY) {
+                throw new IOException("Agent " + i + " has species " + SpeciesTable.getName(s)
+                        + ", which the store has no rules for");
+            }
+            store.kind[i] = (byte) s;
+            if ((snapshot.getFlags(i) & ArenaSnapshot.FLAG_MARKED) != 0) {
+                store.flags[i] = FLAG_MARKED;
+            }
+            maxId = Math.max(maxId, store.id[i]);
+        }
+        store.size = n;
+        store.setSeed(snapshot.getRandomState());
+        Robot.reserveIds(maxId + 1);
+        return store;
+    }
+
+    /**
+     * Checks that a value read from a snapshot fits the column it is stored in.
+     *
+     * @param value the value
+     * @param min   the smallest value the column holds
+     * @param max   the largest value the column holds
+     * @param field the name of the field, for the message
+     * @param i     the index of the agent, for the message
+     * @return the value
+     * @throws IOException if the value is out of range
+     */
+    private static int checkRange(int value, int min, int max, String field, int i) throws IOException {
+        if (value < min || value > max) {
+            throw new IOException("Agent " + i + " has " + field + " " + value
+                    + ", outside the store's range " + min + " to " + max);
+        }
+        return value;
+    }
+
+    /**
+     * Adds an agent with a new ID.
+     *
+     * @param s     the species index
+     * @param ax    the x-coordinate
+     * @param ay    the y-coordinate
+     * @param angle the angle in degrees
+     * @return the index of the new agent
+     */
+    public int add(int s, double ax, double ay, double angle) {
+        return append(s, ax, ay, angle, Robot.nextId());
+    }
+
+    /**
+     * Appends an agent with a given ID and cleared counters.
+     */
+    private int append(int s, double ax, double ay, double angle, int agentId) {
+        if (size == x.length) {
+            allocate(size * 2);
+        }
+        int i = size++;
+        x[i] = ax;
+        y[i] = ay;
+        dirX[i] = FastTrig.cosDeg(angle);
+        dirY[i] = FastTrig.sinDeg(angle);
+        id[i] = agentId;
+        counter[i] = 0;
+        stuck[i] = 0;
+        kind[i] = (byte) s;
+        flags[i] = 0;
+        return i;
+    }
+
+    /**
+     * Advances every agent by one tick, then removes eaten preys and appends new ones.
+     *
+     * @param arena the arena providing the size and obstacles
+     */
+    public void update(RobotArena arena) {
+        int n = size;
+        preyGrid.reset(arena.getXSize(), arena.getYSize(), n);
+        for (int i = 0; i < n; i++) {
+            if (kind[i] == SpeciesTable.PREY) {
+                preyGrid.insert(i, x[i], y[i]);
+            }
+        }
+
+        birthCount = 0;
+        int removed = 0;
+        int splitThreshold = species.getSplitThreshold();
+        for (int i = 0; i < n; i++) {
+            if (kind[i] == SpeciesTable.PREY) {
+                if (counter[i] >= splitThreshold) {
+                    addBirth(x[i], y[i], random.nextDouble() * 360);
+                    counter[i] = 0;
+                }
+                if ((flags[i] & FLAG_MARKED) != 0) {
+                    flags[i] |= FLAG_REMOVED;
+                    removed++;
+                }
+            }
+            move(i, arena);
+        }
+
+        if (removed > 0) {
+            compact();
+        }
+        for (int b = 0; b < birthCount; b++) {
+            add(SpeciesTable.PREY, birthX[b], birthY[b], birthAngle[b]);
+        }
+    }
+
+    /**
+     * Moves one agent, following Predator.tryToMove and Prey.tryToMove.
+     */
+    private void move(int i, RobotArena arena) {
+        int s = kind[i];
+        double speed = species.getSpeed(s);
+        double width = species.getWidth(s);
+        double height = species.getHeight(s);
+        double dx = dirX[i];
+        double dy = dirY[i];
+        double newX = x[i] + speed * dx;
+        double newY = y[i] + speed * dy;
+        double boundaryOffset = 0.2;
+
+        boolean hitBoundary = false;
+        if (newX - width / 2 < boundaryOffset || newX + width / 2 >= arena.getXSize() - boundaryOffset) {
+            dx = -dx;
+            hitBoundary = true;
+        }
+        if (newY - height / 2 < boundaryOffset || newY + height / 2 >= arena.getYSize() - boundaryOffset) {
+            dy = -dy;
+            hitBoundary = true;
+        }
+
+        Obstacle o = arena.findCollidingObstacle(newX, newY, width, height);
+        if (o != null) {
+            if (Math.abs(o.getX() - newX) > Math.abs(o.getY() - newY)) {
+                dx = -dx;
+            } else {
+                dy = -dy;
+            }
+            hitBoundary = true;
+        }
+
+        if (!hitBoundary) {
+            x[i] = newX;
+            y[i] = newY;
+            stuck[i] = 0;
+        } else {
+            stuck[i]++;
+        }
+        if (stuck[i] >= 3) {
+            double a = random.nextDouble() * 360;
+            dx = FastTrig.cosDeg(a);
+            dy = FastTrig.sinDeg(a);
+            stuck[i] = 0;
+        }
+
+        if (s == SpeciesTable.PREY) {
+            preyGrid.update(i, x[i], y[i]);
+            counter[i]++;
+        } else if (counter[i] == 0) {
+            int prey = preyGrid.findFirstWithin(x[i], y[i], species.getDetectionRange());
+            if (prey >= 0) {
+                double px = x[prey] - x[i];
+                double py = y[prey] - y[i];
+                double length = Math.sqrt(px * px + py * py);
+                if (length > 0) {
+                    dx = px / length;
+                    dy = py / length;
+                } else {
+                    dx = 1;
+                    dy = 0;
+                }
+                flags[prey] |= FLAG_MARKED;
+            }
+            counter[i] = Predator.DETECTION_COOLDOWN;
+        } else {
+            counter[i]--;
+        }
+        dirX[i] = dx;
+        dirY[i] = dy;
+    }
+
+    /**
+     * Removes the agents flagged as removed, keeping the others in order.
+     */
+    private void compact() {
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & FLAG_REMOVED) == 0) {
+                if (i != j) {
+                    x[j] = x[i];
+                    y[j] = y[i];
+                    dirX[j] = dirX[i];
+                    dirY[j] = dirY[i];
+                    id[j] = id[i];
+                    counter[j] = counter[i];
+                    stuck[j] = stuck[i];
+                    kind[j] = kind[i];
+                    flags[j] = flags[i];
+                }
+                j++;
+            }
+        }
+        size = j;
+    }
+
+    private void addBirth(double bx, double by, double ba) {
+        if (birthCount == birthX.length) {
+            birthX = Arrays.copyOf(birthX, birthCount * 2);
+            birthY = Arrays.copyOf(birthY, birthCount * 2);
+            birthAngle = Arrays.copyOf(birthAngle, birthCount * 2);
+        }
+        birthX[birthCount] = bx;
+        birthY[birthCount] = by;
+        birthAngle[birthCount] = ba;
+        birthCount++;
+    }
+
+    private void allocate(int capacity) {
+        if (x == null) {
+            x = new double[capacity];
+            y = new double[capacity];
+            dirX = new double[capacity];
+            dirY = new double[capacity];
+            id = new int[capacity];
+            counter = new short[capacity];
+            stuck = new byte[capacity];
+            kind = new byte[capacity];
+            flags = new byte[capacity];
+        } else {
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            dirX = Arrays.copyOf(dirX, capacity);
+            dirY = Arrays.copyOf(dirY, capacity);
+            id = Arrays.copyOf(id, capacity);
+            counter = Arrays.copyOf(counter, capacity);
+            stuck = Arrays.copyOf(stuck, capacity);
+            kind = Arrays.copyOf(kind, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+    }
+
+    /**
+     * Restarts the store's random stream, used for new angles after splits and when stuck.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        random.setState(seed);
+    }
+
+    /**
+     * Returns the number of agents.
+     *
+     * @return the number of agents
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts the agents of one species.
+     *
+     * @param s the species index
+     * @return the number of agents of that species
+     */
+    public int count(int s) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (kind[i] == s) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Returns the x-coordinate of an agent.
+     *
+     * @param i the agent index
+     * @return the x-coordinate
+     */
+    public double getX(int i) {
+        return x[i];
+    }
+
+    /**
+     * Returns the y-coordinate of an agent.
+     *
+     * @param i the agent index
+     * @return the y-coordinate
+     */
+    public double getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * Returns the angle of an agent.
+     *
+     * @param i the agent index
+     * @return the angle in degrees
+     */
+    public double getAngle(int i) {
+        return Math.toDegrees(Math.atan2(dirY[i], dirX[i]));
+    }
+
+    /**
+     * Returns the robot ID of an agent.
+     *
+     * @param i the agent index
+     * @return the ID
+     */
+    public int getId(int i) {
+        return id[i];
+    }
+
+    /**
+     * Returns the species of an agent.
+     *
+     * @param i the agent index
+     * @return the species index
+     */
+    public int getSpecies(int i) {
+        return kind[i];
+    }
+
+    /**
+     * Returns the species constants used by the store.
+     *
+     * @return the species table
+     */
+    public SpeciesTable getSpeciesTable() {
+        return species;
+    }
+}
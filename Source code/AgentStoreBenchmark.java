@@ -0,0 +1,69 @@
+package consoleVersion1;
+
+import java.util.ArrayList;
+
+/**
+ * AgentStoreBenchmark compares the heap used per agent and the tick time of the robot list
+ * against the column store for the same population. Both are measured as built and again
+ * after a tick, when their prey grids are filled, as a running simulation holds both.
+ *
+ * Usage: java consoleVersion1.AgentStoreBenchmark [agents] [ticks]
+ */
+public class AgentStoreBenchmark {
+
+    /**
+     * Measures the heap in use after a full garbage collection.
+     *
+     * @return the used heap in bytes
+     */
+    static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    public static void main(String[] args) {
+        int agents = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int side = (int) Math.ceil(Math.sqrt(agents / 0.08));
+        int predators = agents / 10;
+
+        long before = usedHeap();
+        RobotArena arena = new RobotArena(side, side);
+        arena.addRandomRobots(predators, agents - predators);
+        double robotBytes = (usedHeap() - before) / (double) agents;
+        arena.updateRobots();  // fills the arena's prey grid, which it keeps between ticks
+        double robotTicked = (usedHeap() - before) / (double) arena.getRobots().size();
+        agents = arena.getRobots().size();
+
+        before = usedHeap();
+        AgentStore store = AgentStore.fromRobots(arena.getRobots());
+        double storeBytes = (usedHeap() - before) / (double) agents;
+        store.update(arena);  // fills the store's prey grid the same way
+        double storeTicked = (usedHeap() - before) / (double) store.size();
+
+        System.out.println(String.format("Robot list:   %6.1f bytes/agent, %6.1f after a tick",
+                robotBytes, robotTicked));
+        System.out.println(String.format("Column store: %6.1f bytes/agent, %6.1f after a tick",
+                storeBytes, storeTicked));
+        System.out.println(String.format("Reduction:    %6.1fx, %6.1fx after a tick",
+                robotBytes / storeBytes, robotTicked / storeTicked));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            arena.updateRobots();
+        }
+        double robotMs = (System.nanoTime() - start) / 1e6 / ticks;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            store.update(arena);
+        }
+        double storeMs = (System.nanoTime() - start) / 1e6 / ticks;
+
+        System.out.println(String.format("Robot list tick:   %8.2f ms", robotMs));
+        System.out.println(String.format("Column store tick: %8.2f ms", storeMs));
+    }
+}
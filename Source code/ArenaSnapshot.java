@@ -0,0 +1,900 @@
+package consoleVersion1;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * ArenaSnapshot is a copy of everything needed to continue a Mode 1 run exactly: the arena
+ * size, seed and random state, the tick count, and every robot and obstacle, held as one
+ * primitive array per field. It is written to and read from a binary file through a
+ * FileChannel, a column at a time, which keeps saving and loading millions of robots to
+ * bulk memory copies instead of formatting and parsing a text line per robot.
+ *
+ * File layout, little-endian:
+ * <pre>
+ * int    magic "ECOS", int version
+ * int    arena width, arena height, view width, view height
+ * long   seed, arena random state, tick
+ * int    tick mode, RobotArena TICK_ flags
+ * int    species count, then per species: short name length, UTF-8 name, int robot count
+ * int    robot count, obstacle count
+ * robot columns:    byte species, byte flags, int id, double x, y, angle, dirX, dirY,
+ *                   long random state, int stuck counter, int species counter
+ * obstacle columns: double x, y, width, height
+ * </pre>
+ * The species counter is the detection cooldown of a predator and the survival counter of
+ * a prey. The tick mode is the one the arena was ticked in, which restore() sets, as the
+ * modes lead to different runs. The only flag is FLAG_MARKED, set on a prey a predator has caught during a tick
+ * in order, which the arena removes when it next visits it. Species in the file are
+ * matched to SpeciesTable by name.
+ */
+public class ArenaSnapshot {
+    /** The first int of every snapshot file. */
+    public static final int MAGIC = 0x45434F53;
+    /** The format version written by this class. */
+    public static final int VERSION = 3;
+    /** Robot flag of a prey that has been caught and is removed when next visited. */
+    public static final int FLAG_MARKED = 1;
+    private static final int CHUNK = 1 << 20;  // bytes moved per channel read or write
+    static final int ROW_BYTES = 1 + 1 + 4 + 5 * 8 + 8 + 4 + 4;  // one robot in every column
+
+    // Fields of a changed robot present in a delta record
+    private static final int CHANGED_X = 1;
+    private static final int CHANGED_Y = 2;
+    private static final int CHANGED_HEADING = 4;  // angle, dirX and dirY
+    private static final int CHANGED_RANDOM = 8;
+    private static final int CHANGED_STUCK = 16;
+    private static final int CHANGED_COUNTER = 32;
+    private static final int CHANGED_FLAGS = 64;
+
+    private int xSize, ySize;
+    private int viewWidth, viewHeight;
+    private long seed, randomState, tick;
+    private int tickMode;
+    private int size;
+    private byte[] species;
+    private byte[] flags;
+    private int[] id;
+    private double[] x, y, angle, dirX, dirY;
+    private long[] randomStates;
+    private int[] stuck;
+    private int[] counter;
+    private int obstacleCount;
+    private double[] obstacleX, obstacleY, obstacleWidth, obstacleHeight;
+
+    private ArenaSnapshot() {
+    }
+
+    /**
+     * Copies the state of an arena. Call it between ticks, on the thread that runs them.
+     *
+     * @param arena the arena to copy
+     * @return the snapshot
+     */
+    public static ArenaSnapshot capture(RobotArena arena) {
+        ArenaSnapshot s = new ArenaSnapshot();
+        s.xSize = arena.getXSize();
+        s.ySize = arena.getYSize();
+        s.seed = arena.getSeed();
+        s.randomState = arena.getRandomState();
+        s.tick = arena.getTick();
+        s.tickMode = arena.getTickMode();
+
+        ArrayList<Robot> robots = arena.getRobots();
+        s.allocateRobots(robots.size());
+        for (int i = 0; i < s.size; i++) {
+            Robot r = robots.get(i);
+            int sp = SpeciesTable.of(r);
+            s.species[i] = (byte) sp;
+            s.flags[i] = (byte) (sp == SpeciesTable.PREY && ((Prey) r).isMarkedForRemoval() ? FLAG_MARKED : 0);
+            s.id[i] = r.getId();
+            s.x[i] = r.getX();
+            s.y[i] = r.getY();
+            s.angle[i] = r.getAngle();
+            s.dirX[i] = r.getDirX();
+            s.dirY[i] = r.getDirY();
+            s.randomStates[i] = r.getRandomState();
+            s.stuck[i] = r.getStuckCounter();
+            s.counter[i] = sp == SpeciesTable.PREDATOR
+                    ? ((Predator) r).getDetectionCooldown() : ((Prey) r).getSurvivalCounter();
+        }
+
+        ArrayList<Obstacle> obstacles = arena.getObstacles();
+        s.allocateObstacles(obstacles.size());
+        for (int i = 0; i < s.obstacleCount; i++) {
+            Obstacle o = obstacles.get(i);
+            s.obstacleX[i] = o.getX();
+            s.obstacleY[i] = o.getY();
+            s.obstacleWidth[i] = o.getWidth();
+            s.obstacleHeight[i] = o.getHeight();
+        }
+        return s;
+    }
+
+    /**
+     * Builds a new arena in the state and tick mode the snapshot was taken in. Ticking it
+     * gives the same trajectory the original arena would have had.
+     *
+     * @return the restored arena
+     */
+    public RobotArena restore() {
+        RobotArena arena = new RobotArena(xSize, ySize, seed);
+        arena.resume(randomState, tick);
+        arena.setTickMode(tickMode);
+        for (int i = 0; i < obstacleCount; i++) {
+            arena.addObstacle(new Obstacle(obstacleX[i], obstacleY[i], obstacleWidth[i], obstacleHeight[i]));
+        }
+        int maxId = -1;
+        for (int i = 0; i < size; i++) {
+            Robot r;
+            if (species[i] == SpeciesTable.PREDATOR) {
+                Predator p = new Predator(x[i], y[i], angle[i]);
+                p.setDetectionCooldown(counter[i]);
+                r = p;
+            } else {
+                Prey p = new Prey(x[i], y[i], angle[i]);
+                p.setSurvivalCounter(counter[i]);
+                if ((flags[i] & FLAG_MARKED) != 0) {
+                    p.markForRemoval();
+                }
+                r = p;
+            }
+            r.restore(id[i], dirX[i], dirY[i], randomStates[i], stuck[i]);
+            arena.addRobot(r);
+            maxId = Math.max(maxId, id[i]);
+        }
+        Robot.reserveIds(maxId + 1);
+        return arena;
+    }
+
+    /**
+     * Sets the size of the view the arena was shown in, saved alongside the arena.
+     *
+     * @param width  the view width in pixels
+     * @param height the view height in pixels
+     */
+    public void setViewSize(int width, int height) {
+        viewWidth = width;
+        viewHeight = height;
+    }
+
+    /**
+     * Returns the saved view width, or 0 if none was set.
+     *
+     * @return the view width in pixels
+     */
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    /**
+     * Returns the saved view height, or 0 if none was set.
+     *
+     * @return the view height in pixels
+     */
+    public int getViewHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * Returns the number of robots in the snapshot.
+     *
+     * @return the number of robots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the tick the snapshot was taken at.
+     *
+     * @return the tick count
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the size of the file write() makes of this snapshot.
+     *
+     * @return the number of bytes
+     */
+    public long byteSize() {
+        long bytes = 2 * 4 + 4 * 4 + 3 * 8 + 4 + 4;
+        for (int sp = 0; sp < SpeciesTable.COUNT; sp++) {
+            bytes += 2 + SpeciesTable.getName(sp).getBytes(StandardCharsets.UTF_8).length + 4;
+        }
+        return bytes + 2 * 4 + (long) size * ROW_BYTES + (long) obstacleCount * 4 * 8;
+    }
+
+    /**
+     * Writes the snapshot to a file, replacing it if it exists.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel);
+        }
+    }
+
+    /**
+     * Writes the snapshot, exactly byteSize() bytes in the file format, to a channel.
+     *
+     * @param channel the channel to write to
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        Output out = new Output(channel);
+        out.ensure(64);
+        out.buf.putInt(MAGIC).putInt(VERSION);
+        out.buf.putInt(xSize).putInt(ySize).putInt(viewWidth).putInt(viewHeight);
+        out.buf.putLong(seed).putLong(randomState).putLong(tick).putInt(tickMode);
+
+        int[] perSpecies = new int[SpeciesTable.COUNT];
+        for (int i = 0; i < size; i++) {
+            perSpecies[species[i]]++;
+        }
+        out.ensure(4);
+        out.buf.putInt(SpeciesTable.COUNT);
+        for (int sp = 0; sp < SpeciesTable.COUNT; sp++) {
+            byte[] name = SpeciesTable.getName(sp).getBytes(StandardCharsets.UTF_8);
+            out.ensure(2 + name.length + 4);
+            out.buf.putShort((short) name.length).put(name).putInt(perSpecies[sp]);
+        }
+        out.ensure(8);
+        out.buf.putInt(size).putInt(obstacleCount);
+
+        out.putBytes(species, size);
+        out.putBytes(flags, size);
+        out.putInts(id, size);
+        out.putDoubles(x, size);
+        out.putDoubles(y, size);
+        out.putDoubles(angle, size);
+        out.putDoubles(dirX, size);
+        out.putDoubles(dirY, size);
+        out.putLongs(randomStates, size);
+        out.putInts(stuck, size);
+        out.putInts(counter, size);
+
+        out.putDoubles(obstacleX, obstacleCount);
+        out.putDoubles(obstacleY, obstacleCount);
+        out.putDoubles(obstacleWidth, obstacleCount);
+        out.putDoubles(obstacleHeight, obstacleCount);
+        out.flush();
+    }
+
+    /**
+     * Reads a snapshot written by write().
+     *
+     * @param path the file to read
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of a known version
+     */
+    public static ArenaSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, path);
+        }
+    }
+
+    /**
+     * Reads a snapshot from a channel. The channel is read ahead in large chunks, so it
+     * should end where the snapshot ends.
+     *
+     * @param channel the channel to read from
+     * @param source  the file the channel reads, for error messages
+     * @return the snapshot
+     * @throws IOException if the channel cannot be read or does not hold a snapshot of a known version
+     */
+    public static ArenaSnapshot read(ReadableByteChannel channel, Path source) throws IOException {
+        Input in = new Input(channel);
+        in.fill();  // the header is far smaller than a chunk
+        Header h = Header.parse(in.buf, source);
+        ArenaSnapshot s = new ArenaSnapshot();
+        s.xSize = h.xSize;
+        s.ySize = h.ySize;
+        s.viewWidth = h.viewWidth;
+        s.viewHeight = h.viewHeight;
+        s.seed = h.seed;
+        s.randomState = h.randomState;
+        s.tick = h.tick;
+        s.tickMode = h.tickMode;
+        int n = h.robotCount;
+        int m = h.obstacleCount;
+
+        s.allocateRobots(n);
+        in.getBytes(s.species, n);
+        for (int i = 0; i < n; i++) {
+            s.species[i] = h.species(s.species[i], source);
+        }
+        in.getBytes(s.flags, n);
+        in.getInts(s.id, n);
+        in.getDoubles(s.x, n);
+        in.getDoubles(s.y, n);
+        in.getDoubles(s.angle, n);
+        in.getDoubles(s.dirX, n);
+        in.getDoubles(s.dirY, n);
+        in.getLongs(s.randomStates, n);
+        in.getInts(s.stuck, n);
+        in.getInts(s.counter, n);
+
+        s.allocateObstacles(m);
+        in.getDoubles(s.obstacleX, m);
+        in.getDoubles(s.obstacleY, m);
+        in.getDoubles(s.obstacleWidth, m);
+        in.getDoubles(s.obstacleHeight, m);
+        return s;
+    }
+
+    /**
+     * Header is the part of a snapshot file before the columns, shared by read() and
+     * MappedSnapshot.
+     */
+    static final class Header {
+        int xSize, ySize, viewWidth, viewHeight;
+        long seed, randomState, tick;
+        int tickMode;
+        int robotCount, obstacleCount;
+        long columnsOffset;         // file position of the first column
+        private byte[] speciesMap;  // file species index to SpeciesTable index
+
+        /**
+         * Parses the header at the start of a buffer, leaving the buffer positioned at the
+         * first column.
+         *
+         * @param buf  the buffer, holding the whole header from position 0
+         * @param path the file, for error messages
+         * @return the header
+         * @throws IOException if the file is not a snapshot of a known version
+         */
+        static Header parse(ByteBuffer buf, Path path) throws IOException {
+            try {
+                if (buf.getInt() != MAGIC) {
+                    throw new IOException(path + " is not an arena snapshot");
+                }
+                int version = buf.getInt();
+                if (version != VERSION) {
+                    throw new IOException(path + " has snapshot version " + version + ", expected " + VERSION);
+                }
+                Header h = new Header();
+                h.xSize = buf.getInt();
+                h.ySize = buf.getInt();
+                h.viewWidth = buf.getInt();
+                h.viewHeight = buf.getInt();
+                h.seed = buf.getLong();
+                h.randomState = buf.getLong();
+                h.tick = buf.getLong();
+                h.tickMode = buf.getInt();
+
+                int speciesCount = buf.getInt();
+                h.speciesMap = new byte[Math.max(0, speciesCount)];
+                for (int sp = 0; sp < speciesCount; sp++) {
+                    byte[] name = new byte[buf.getShort()];
+                    buf.get(name);
+                    buf.getInt();  // robot count, for readers that only look at the header
+                    h.speciesMap[sp] = (byte) speciesIndex(new String(name, StandardCharsets.UTF_8), path);
+                }
+                h.robotCount = buf.getInt();
+                h.obstacleCount = buf.getInt();
+                if (h.robotCount < 0 || h.obstacleCount < 0) {
+                    throw new IOException(path + " is corrupt: negative robot or obstacle count");
+                }
+                h.columnsOffset = buf.position();
+                return h;
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                throw new EOFException(path + " ends inside the snapshot header");
+            }
+        }
+
+        /**
+         * Converts a species index as stored in the file to a SpeciesTable index.
+         *
+         * @param stored the stored index
+         * @param path   the file, for error messages
+         * @return the SpeciesTable index
+         * @throws IOException if the file has no such species
+         */
+        byte species(int stored, Path path) throws IOException {
+            if (stored < 0 || stored >= speciesMap.length) {
+                throw new IOException(path + " is corrupt: unknown species " + stored);
+            }
+            return speciesMap[stored];
+        }
+
+        private static int speciesIndex(String name, Path path) throws IOException {
+            for (int sp = 0; sp < SpeciesTable.COUNT; sp++) {
+                if (SpeciesTable.getName(sp).equals(name)) {
+                    return sp;
+                }
+            }
+            throw new IOException(path + " contains unknown species " + name);
+        }
+    }
+
+    /**
+     * Checks whether a delta can take an earlier snapshot to this one: the arena size, seed,
+     * tick mode and obstacles must be the same, as deltas only describe robots.
+     *
+     * @param earlier the earlier snapshot
+     * @return true if the scene is unchanged
+     */
+    boolean hasSameScene(ArenaSnapshot earlier) {
+        if (xSize != earlier.xSize || ySize != earlier.ySize || seed != earlier.seed
+                || tickMode != earlier.tickMode || obstacleCount != earlier.obstacleCount) {
+            return false;
+        }
+        for (int i = 0; i < obstacleCount; i++) {
+            if (obstacleX[i] != earlier.obstacleX[i] || obstacleY[i] != earlier.obstacleY[i]
+                    || obstacleWidth[i] != earlier.obstacleWidth[i] || obstacleHeight[i] != earlier.obstacleHeight[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes what changed between an earlier snapshot of the same scene and this one.
+     * The arena only removes robots stably and appends new ones, so the two robot lists are
+     * walked side by side: an earlier robot whose ID does not come next in this snapshot
+     * died, robots left over at the end were born, and for the others only the fields that
+     * differ are written. A reordered list still decodes correctly, only less compactly.
+     *
+     * Record layout: long tick, long arena random state, int robot count, int deaths,
+     * int changes, int births; the earlier indices of the deaths; per change the gap to
+     * the previous changed index in this snapshot as a varint, a byte of CHANGED_ flags and
+     * the flagged fields in column order; and per birth a full row in column order.
+     *
+     * A robot moves a little every tick, so a changed double or random state is written as
+     * its XOR with the earlier value, which mostly has zero high bytes: a byte count, then
+     * only the low bytes. Counters are written as varints and robot flags as a byte.
+     *
+     * @param earlier the snapshot the delta starts from, for which hasSameScene is true
+     * @return the record, flipped for writing
+     */
+    ByteBuffer encodeDelta(ArenaSnapshot earlier) {
+        int[] deaths = new int[16];
+        int deathCount = 0;
+        ByteBuffer changes = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        int changeCount = 0;
+        int lastChanged = -1;
+        int j = 0;
+        for (int i = 0; i < earlier.size; i++) {
+            if (j >= size || id[j] != earlier.id[i]) {
+                if (deathCount == deaths.length) {
+                    deaths = Arrays.copyOf(deaths, deathCount * 2);
+                }
+                deaths[deathCount++] = i;
+                continue;
+            }
+            int changed = 0;
+            if (Double.doubleToRawLongBits(x[j]) != Double.doubleToRawLongBits(earlier.x[i])) {
+                changed |= CHANGED_X;
+            }
+            if (Double.doubleToRawLongBits(y[j]) != Double.doubleToRawLongBits(earlier.y[i])) {
+                changed |= CHANGED_Y;
+            }
+            if (Double.doubleToRawLongBits(angle[j]) != Double.doubleToRawLongBits(earlier.angle[i])
+                    || Double.doubleToRawLongBits(dirX[j]) != Double.doubleToRawLongBits(earlier.dirX[i])
+                    || Double.doubleToRawLongBits(dirY[j]) != Double.doubleToRawLongBits(earlier.dirY[i])) {
+                changed |= CHANGED_HEADING;
+            }
+            if (randomStates[j] != earlier.randomStates[i]) {
+                changed |= CHANGED_RANDOM;
+            }
+            if (stuck[j] != earlier.stuck[i]) {
+                changed |= CHANGED_STUCK;
+            }
+            if (counter[j] != earlier.counter[i]) {
+                changed |= CHANGED_COUNTER;
+            }
+            if (flags[j] != earlier.flags[i]) {
+                changed |= CHANGED_FLAGS;
+            }
+            if (changed != 0) {
+                changes = ensure(changes, 5 + 1 + 6 * 9 + 2 * 5 + 1);
+                putVarInt(changes, j - lastChanged);
+                changes.put((byte) changed);
+                if ((changed & CHANGED_X) != 0) {
+                    putXor(changes, earlier.x[i], x[j]);
+                }
+                if ((changed & CHANGED_Y) != 0) {
+                    putXor(changes, earlier.y[i], y[j]);
+                }
+                if ((changed & CHANGED_HEADING) != 0) {
+                    putXor(changes, earlier.angle[i], angle[j]);
+                    putXor(changes, earlier.dirX[i], dirX[j]);
+                    putXor(changes, earlier.dirY[i], dirY[j]);
+                }
+                if ((changed & CHANGED_RANDOM) != 0) {
+                    putXor(changes, earlier.randomStates[i] ^ randomStates[j]);
+                }
+                if ((changed & CHANGED_STUCK) != 0) {
+                    putVarInt(changes, stuck[j]);
+                }
+                if ((changed & CHANGED_COUNTER) != 0) {
+                    putVarInt(changes, counter[j]);
+                }
+                if ((changed & CHANGED_FLAGS) != 0) {
+                    changes.put(flags[j]);
+                }
+                lastChanged = j;
+                changeCount++;
+            }
+            j++;
+        }
+        int birthCount = size - j;
+
+        changes.flip();
+        ByteBuffer record = ByteBuffer.allocate(8 + 8 + 4 * 4 + 4 * deathCount + changes.remaining()
+                + birthCount * ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        record.putLong(tick).putLong(randomState);
+        record.putInt(size).putInt(deathCount).putInt(changeCount).putInt(birthCount);
+        for (int d = 0; d < deathCount; d++) {
+            record.putInt(deaths[d]);
+        }
+        record.put(changes);
+        for (int b = j; b < size; b++) {
+            record.put(species[b]).put(flags[b]).putInt(id[b]);
+            record.putDouble(x[b]).putDouble(y[b]).putDouble(angle[b]).putDouble(dirX[b]).putDouble(dirY[b]);
+            record.putLong(randomStates[b]).putInt(stuck[b]).putInt(counter[b]);
+        }
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Builds the snapshot a delta record leads to from this one.
+     *
+     * @param record the record made by encodeDelta with this snapshot as the earlier one
+     * @return the new snapshot
+     * @throws IOException if the record does not fit this snapshot
+     */
+    ArenaSnapshot applyDelta(ByteBuffer record) throws IOException {
+        try {
+            ArenaSnapshot s = new ArenaSnapshot();
+            s.xSize = xSize;
+            s.ySize = ySize;
+            s.viewWidth = viewWidth;
+            s.viewHeight = viewHeight;
+            s.seed = seed;
+            s.tickMode = tickMode;
+            s.tick = record.getLong();
+            s.randomState = record.getLong();
+            int n = record.getInt();
+            int deathCount = record.getInt();
+            int changeCount = record.getInt();
+            int birthCount = record.getInt();
+            if (n < 0 || n != size - deathCount + birthCount) {
+                throw new IOException("Delta for tick " + s.tick + " does not follow tick " + tick);
+            }
+            s.allocateRobots(n);
+            s.obstacleCount = obstacleCount;
+            s.obstacleX = obstacleX;
+            s.obstacleY = obstacleY;
+            s.obstacleWidth = obstacleWidth;
+            s.obstacleHeight = obstacleHeight;
+
+            // Copy the survivors in order, skipping the deaths
+            int j = 0;
+            int next = 0;
+            for (int d = 0; d <= deathCount; d++) {
+                int dead = d < deathCount ? record.getInt() : size;
+                int count = dead - next;
+                s.copyRows(this, next, j, count);
+                j += count;
+                next = dead + 1;
+            }
+
+            // The survivors hold their earlier values, which the changes are XORed with
+            int i = -1;
+            for (int c = 0; c < changeCount; c++) {
+                i += getVarInt(record);
+                int changed = record.get();
+                if ((changed & CHANGED_X) != 0) {
+                    s.x[i] = getXor(record, s.x[i]);
+                }
+                if ((changed & CHANGED_Y) != 0) {
+                    s.y[i] = getXor(record, s.y[i]);
+                }
+                if ((changed & CHANGED_HEADING) != 0) {
+                    s.angle[i] = getXor(record, s.angle[i]);
+                    s.dirX[i] = getXor(record, s.dirX[i]);
+                    s.dirY[i] = getXor(record, s.dirY[i]);
+                }
+                if ((changed & CHANGED_RANDOM) != 0) {
+                    s.randomStates[i] ^= getXor(record);
+                }
+                if ((changed & CHANGED_STUCK) != 0) {
+                    s.stuck[i] = getVarInt(record);
+                }
+                if ((changed & CHANGED_COUNTER) != 0) {
+                    s.counter[i] = getVarInt(record);
+                }
+                if ((changed & CHANGED_FLAGS) != 0) {
+                    s.flags[i] = record.get();
+                }
+            }
+
+            for (int b = j; b < n; b++) {
+                s.species[b] = record.get();
+                s.flags[b] = record.get();
+                s.id[b] = record.getInt();
+                s.x[b] = record.getDouble();
+                s.y[b] = record.getDouble();
+                s.angle[b] = record.getDouble();
+                s.dirX[b] = record.getDouble();
+                s.dirY[b] = record.getDouble();
+                s.randomStates[b] = record.getLong();
+                s.stuck[b] = record.getInt();
+                s.counter[b] = record.getInt();
+            }
+            return s;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Delta record after tick " + tick + " is corrupt", e);
+        }
+    }
+
+    /**
+     * Copies consecutive robots of another snapshot into this one.
+     */
+    private void copyRows(ArenaSnapshot from, int src, int dst, int count) {
+        System.arraycopy(from.species, src, species, dst, count);
+        System.arraycopy(from.flags, src, flags, dst, count);
+        System.arraycopy(from.id, src, id, dst, count);
+        System.arraycopy(from.x, src, x, dst, count);
+        System.arraycopy(from.y, src, y, dst, count);
+        System.arraycopy(from.angle, src, angle, dst, count);
+        System.arraycopy(from.dirX, src, dirX, dst, count);
+        System.arraycopy(from.dirY, src, dirY, dst, count);
+        System.arraycopy(from.randomStates, src, randomStates, dst, count);
+        System.arraycopy(from.stuck, src, stuck, dst, count);
+        System.arraycopy(from.counter, src, counter, dst, count);
+    }
+
+    /**
+     * Writes a non-negative int in 7-bit groups, low group first.
+     */
+    private static void putVarInt(ByteBuffer buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer buf) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Delta record has an overlong varint");
+    }
+
+    /**
+     * Writes the XOR of two doubles' bits, see putXor(ByteBuffer, long).
+     */
+    private static void putXor(ByteBuffer buf, double earlier, double now) {
+        putXor(buf, Double.doubleToRawLongBits(earlier) ^ Double.doubleToRawLongBits(now));
+    }
+
+    /**
+     * Writes a long with its zero high bytes left out: a byte count, then that many bytes,
+     * low byte first.
+     */
+    private static void putXor(ByteBuffer buf, long bits) {
+        int bytes = (64 - Long.numberOfLeadingZeros(bits) + 7) / 8;
+        buf.put((byte) bytes);
+        for (int b = 0; b < bytes; b++) {
+            buf.put((byte) (bits >>> (8 * b)));
+        }
+    }
+
+    private static double getXor(ByteBuffer buf, double earlier) throws IOException {
+        return Double.longBitsToDouble(Double.doubleToRawLongBits(earlier) ^ getXor(buf));
+    }
+
+    private static long getXor(ByteBuffer buf) throws IOException {
+        int bytes = buf.get();
+        if (bytes < 0 || bytes > 8) {
+            throw new IOException("Delta record has a bad field length " + bytes);
+        }
+        long bits = 0;
+        for (int b = 0; b < bytes; b++) {
+            bits |= (buf.get() & 0xFFL) << (8 * b);
+        }
+        return bits;
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buf, int bytes) {
+        if (buf.remaining() >= bytes) {
+            return buf;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + bytes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buf.flip();
+        return bigger.put(buf);
+    }
+
+    private void allocateRobots(int n) {
+        size = n;
+        species = new byte[n];
+        flags = new byte[n];
+        id = new int[n];
+        x = new double[n];
+        y = new double[n];
+        angle = new double[n];
+        dirX = new double[n];
+        dirY = new double[n];
+        randomStates = new long[n];
+        stuck = new int[n];
+        counter = new int[n];
+    }
+
+    private void allocateObstacles(int m) {
+        obstacleCount = m;
+        obstacleX = new double[m];
+        obstacleY = new double[m];
+        obstacleWidth = new double[m];
+        obstacleHeight = new double[m];
+    }
+
+    /**
+     * Output fills a direct buffer and writes it to the channel whenever it is full, so
+     * columns go out in bulk copies of up to CHUNK bytes.
+     */
+    private static final class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        /** Makes room for at least the given number of bytes. */
+        void ensure(int bytes) throws IOException {
+            if (buf.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            buf.clear();
+        }
+
+        void putBytes(byte[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                ensure(1);
+                int count = Math.min(n - i, buf.remaining());
+                buf.put(a, i, count);
+                i += count;
+            }
+        }
+
+        void putInts(int[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                ensure(Integer.BYTES);
+                int count = Math.min(n - i, buf.remaining() / Integer.BYTES);
+                buf.asIntBuffer().put(a, i, count);
+                buf.position(buf.position() + count * Integer.BYTES);
+                i += count;
+            }
+        }
+
+        void putLongs(long[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                ensure(Long.BYTES);
+                int count = Math.min(n - i, buf.remaining() / Long.BYTES);
+                buf.asLongBuffer().put(a, i, count);
+                buf.position(buf.position() + count * Long.BYTES);
+                i += count;
+            }
+        }
+
+        void putDoubles(double[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                ensure(Double.BYTES);
+                int count = Math.min(n - i, buf.remaining() / Double.BYTES);
+                buf.asDoubleBuffer().put(a, i, count);
+                buf.position(buf.position() + count * Double.BYTES);
+                i += count;
+            }
+        }
+    }
+
+    /**
+     * Input reads the channel into a direct buffer a chunk at a time and copies columns
+     * out of it in bulk.
+     */
+    private static final class Input {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+
+        Input(ReadableByteChannel channel) {
+            this.channel = channel;
+            buf.flip();  // start empty
+        }
+
+        /** Buffers as much as fits, or up to the end of the channel. */
+        void fill() throws IOException {
+            buf.compact();
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                // keep reading
+            }
+            buf.flip();
+        }
+
+        /** Makes sure at least the given number of bytes, at most CHUNK, are buffered. */
+        void require(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) {
+                return;
+            }
+            buf.compact();
+            while (buf.position() < bytes) {
+                if (channel.read(buf) < 0) {
+                    throw new EOFException("Arena snapshot ends early");
+                }
+            }
+            buf.flip();
+        }
+
+        void getBytes(byte[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                require(1);
+                int count = Math.min(n - i, buf.remaining());
+                buf.get(a, i, count);
+                i += count;
+            }
+        }
+
+        void getInts(int[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                require(Integer.BYTES);
+                int count = Math.min(n - i, buf.remaining() / Integer.BYTES);
+                buf.asIntBuffer().get(a, i, count);
+                buf.position(buf.position() + count * Integer.BYTES);
+                i += count;
+            }
+        }
+
+        void getLongs(long[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                require(Long.BYTES);
+                int count = Math.min(n - i, buf.remaining() / Long.BYTES);
+                buf.asLongBuffer().get(a, i, count);
+                buf.position(buf.position() + count * Long.BYTES);
+                i += count;
+            }
+        }
+
+        void getDoubles(double[] a, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                require(Double.BYTES);
+                int count = Math.min(n - i, buf.remaining() / Double.BYTES);
+                buf.asDoubleBuffer().get(a, i, count);
+                buf.position(buf.position() + count * Double.BYTES);
+                i += count;
+            }
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package consoleVersion1;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * BatchRunner runs the Mode 1 ecosystem headless, without starting the JavaFX toolkit.
+ * It steps the arena as fast as the CPU allows and reports the throughput.
+ *
+ * Usage: java consoleVersion1.BatchRunner [--ticks N] [--warmup N] [--predators N] [--preys N]
+ *        [--width N] [--height N] [--trees N] [--threads N] [--phased 0|1] [--buffered 0|1]
+ *        [--store robots|columns] [--seed N] [--fasttrig 0|1] [--jmx 0|1] [--load FILE] [--save FILE]
+ *        [--journal DIR] [--checkpoint N] [--resume TICK] [--load-text FILE] [--save-text FILE]
+ *        [--replay FILE] [--replay-to TICK] [--stop 0|1] [--clusters N] [--cluster-size N]
+ *        [--max-agents N]
+ *
+ * Ticks run in order, as in the UI, unless --phased 1 or --buffered 1 is given. Phased and
+ * double-buffered ticks can run on --threads threads, which makes them faster without
+ * changing the result. The three modes give different runs from the same seed.
+ *
+ * --clusters places the trees, predators and prey in that many square clusters of
+ * --cluster-size units at random spots, instead of all over the arena. With a huge
+ * --width and --height this gives the sparse, clustered worlds the grids are chunked for.
+ *
+ * --load starts from an ArenaSnapshot instead of a new arena, and --save writes one after
+ * the last tick. Both print how long the file took. The snapshot is memory-mapped, and with
+ * --store columns its agents are ticked without ever building Robot objects. The column
+ * store ticks in order and cannot be journalled or saved, so it rejects --buffered,
+ * --journal, --save and --save-text. Options that would otherwise be ignored, such as
+ * --clusters with a loaded arena, are rejected too.
+ *
+ * --journal keeps a CheckpointJournal in a directory, with a checkpoint every --checkpoint
+ * ticks, and prints how many bytes it wrote compared with full saves. With --resume the run
+ * starts from the journal's state at that tick instead, in the tick mode the journal was
+ * written in.
+ *
+ * --load-text starts from a text save, parsed by TextWorldLoader with --threads threads, and
+ * --save-text writes one after the last tick.
+ *
+ * --replay re-runs a RunRecording made in the UI, to its end or to the recording tick given
+ * by --replay-to, and prints how fast it went. The other run options are then rejected,
+ * except --threads and --save, which saves the replayed arena.
+ *
+ * With --stop 1 a TerminationMonitor watches the species counts, and the run stops as soon
+ * as it resolves: when a species dies out or the populations reach a steady state. The
+ * reason and tick are printed, and the throughput is over the ticks actually run.
+ *
+ * A run whose agents pass --max-agents, a million by default, stops with a message rather
+ * than growing until the heap runs out. A loaded arena that already holds more is rejected.
+ *
+ * With --jmx 1 the arena's TickMetrics are registered as an MBean and the runner waits for
+ * Enter before exiting, so JConsole or VisualVM can be attached for the whole run.
+ */
+public class BatchRunner {
+    private int ticks = 10000;
+    private int warmupTicks = 1000;
+    private int predatorCount = 10;
+    private int preyCount = 50;
+    private int arenaWidth = 25;
+    private int arenaHeight = 25;
+    private int treeCount = 2;
+    private int threads = 1;
+    private boolean doubleBuffered = false;
+    private boolean phased = false;
+    private boolean columnStore = false;  // step an AgentStore instead of the robot list
+    private long seed = SimRandom.freshSeed();
+    private boolean jmx = false;
+    private boolean stopWhenResolved = false;  // stop once the TerminationMonitor finds the run resolved
+    private int maxAgents = 1_000_000;  // population at which the run is stopped
+    private int clusters = 0;         // number of clusters to place the scene in, or 0 for the whole arena
+    private int clusterSize = 200;
+    private Path loadPath = null;  // snapshot to start from, or null for a new arena
+    private Path savePath = null;  // snapshot to write at the end, or null
+    private Path textPath = null;  // text save to start from, or null
+    private Path saveTextPath = null;  // text save to write at the end, or null
+    private Path replayPath = null;    // recording to replay instead of a run, or null
+    private long replayTo = -1;        // recording tick to replay to, or -1 for the end
+    private static final int JOURNAL_BASE_INTERVAL = 20;  // checkpoints between full bases
+    private Path journalPath = null;  // checkpoint journal directory, or null
+    private int checkpointInterval = 1000;
+    private long resumeTick = -1;     // tick to restore from the journal, or -1
+    private long storeTicks = 0;      // ticks run by the column store, which keeps no tick count
+
+    /**
+     * Parses the command line options, leaving defaults for any that are not given.
+     *
+     * @param args the command line arguments
+     */
+    public BatchRunner(String[] args) {
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException("Missing value for " + args[args.length - 1]);
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--ticks": ticks = Integer.parseInt(value); break;
+                case "--warmup": warmupTicks = Integer.parseInt(value); break;
+                case "--predators": predatorCount = Integer.parseInt(value); break;
+                case "--preys": preyCount = Integer.parseInt(value); break;
+                case "--width": arenaWidth = Integer.parseInt(value); break;
+                case "--height": arenaHeight = Integer.parseInt(value); break;
+                case "--trees": treeCount = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--buffered": doubleBuffered = Integer.parseInt(value) != 0; break;
+                case "--phased": phased = Integer.parseInt(value) != 0; break;
+                case "--store": columnStore = parseStore(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--fasttrig": FastTrig.setEnabled(Integer.parseInt(value) != 0); break;
+                case "--jmx": jmx = Integer.parseInt(value) != 0; break;
+                case "--stop": stopWhenResolved = Integer.parseInt(value) != 0; break;
+                case "--max-agents": maxAgents = Integer.parseInt(value); break;
+                case "--clusters": clusters = Integer.parseInt(value); break;
+                case "--cluster-size": clusterSize = Math.max(1, Integer.parseInt(value)); break;
+                case "--load": loadPath = Paths.get(value); break;
+                case "--save": savePath = Paths.get(value); break;
+                case "--load-text": textPath = Paths.get(value); break;
+                case "--save-text": saveTextPath = Paths.get(value); break;
+                case "--replay": replayPath = Paths.get(value); break;
+                case "--replay-to": replayTo = Long.parseLong(value); break;
+                case "--journal": journalPath = Paths.get(value); break;
+                case "--checkpoint": checkpointInterval = Math.max(1, Integer.parseInt(value)); break;
+                case "--resume": resumeTick = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        checkCombination(args);
+    }
+
+    private static boolean parseStore(String value) {
+        switch (value) {
+            case "robots": return false;
+            case "columns": return true;
+            default: throw new IllegalArgumentException("Unknown store " + value + ", expected robots or columns");
+        }
+    }
+
+    /**
+     * Rejects options that would be silently ignored by the others given with them.
+     */
+    private void checkCombination(String[] args) {
+        if (replayPath != null) {
+            for (int i = 0; i < args.length; i += 2) {
+                if (!args[i].equals("--replay") && !args[i].equals("--replay-to")
+                        && !args[i].equals("--threads") && !args[i].equals("--save")) {
+                    throw new IllegalArgumentException(args[i] + " does not apply to --replay");
+                }
+            }
+            return;
+        }
+        if (replayTo >= 0) {
+            throw new IllegalArgumentException("--replay-to needs --replay");
+        }
+        if (threads > 1 && !phased && !doubleBuffered && textPath == null && resumeTick < 0) {
+            throw new IllegalArgumentException("In-order ticks run on one thread, --threads needs --phased 1 or --buffered 1");
+        }
+        int sources = (loadPath != null ? 1 : 0) + (textPath != null ? 1 : 0) + (resumeTick >= 0 ? 1 : 0);
+        if (sources > 1) {
+            throw new IllegalArgumentException("Give only one of --load, --load-text and --resume");
+        }
+        if (resumeTick >= 0 && journalPath == null) {
+            throw new IllegalArgumentException("--resume needs --journal");
+        }
+        if (resumeTick >= 0 && (phased || doubleBuffered)) {
+            throw new IllegalArgumentException("--resume continues in the journal's tick mode, --phased and --buffered do not apply");
+        }
+        if (sources > 0 && clusters > 0) {
+            throw new IllegalArgumentException("--clusters only applies to a new arena");
+        }
+        if (columnStore) {
+            if (journalPath != null) {
+                throw new IllegalArgumentException("--journal needs --store robots");
+            }
+            if (savePath != null || saveTextPath != null) {
+                throw new IllegalArgumentException("--save and --save-text need --store robots");
+            }
+            if (doubleBuffered || phased) {
+                throw new IllegalArgumentException("--store columns always ticks in order, --buffered and --phased do not apply");
+            }
+        }
+    }
+
+    /**
+     * Creates an arena populated the same way as Apply Scene followed by Apply Robots.
+     *
+     * @return the populated arena
+     */
+    public RobotArena createArena() {
+        RobotArena arena = new RobotArena(arenaWidth, arenaHeight, seed);
+        if (clusters > 0) {
+            addClusters(arena);
+        } else {
+            arena.addRandomObstacles(treeCount, 0.2, 0.2);
+            arena.addRandomRobots(predatorCount, preyCount);
+        }
+        applyTickMode(arena);
+        return arena;
+    }
+
+    /**
+     * Sets the tick mode and thread count chosen on the command line.
+     */
+    private void applyTickMode(RobotArena arena) {
+        arena.setThreads(threads);
+        arena.setPhased(phased);
+        arena.setDoubleBuffered(doubleBuffered);
+    }
+
+    /**
+     * Splits the trees, predators and prey evenly over clusters at random spots.
+     */
+    private void addClusters(RobotArena arena) {
+        SimRandom placer = new SimRandom(SimRandom.mix(seed));
+        int width = Math.min(clusterSize, arenaWidth);
+        int height = Math.min(clusterSize, arenaHeight);
+        int[] x0 = new int[clusters], y0 = new int[clusters];
+        for (int c = 0; c < clusters; c++) {
+            x0[c] = placer.nextInt(arenaWidth - width + 1);
+            y0[c] = placer.nextInt(arenaHeight - height + 1);
+        }
+        // Trees first in every cluster, as Apply Scene comes before Apply Robots
+        for (int c = 0; c < clusters; c++) {
+            arena.addRandomObstacles(share(treeCount, c), 0.2, 0.2, x0[c], y0[c], width, height);
+        }
+        for (int c = 0; c < clusters; c++) {
+            arena.addRandomRobots(share(predatorCount, c), share(preyCount, c), x0[c], y0[c], width, height);
+        }
+    }
+
+    /**
+     * Returns cluster c's share of a count, handing the remainder to the first clusters.
+     */
+    private int share(int count, int c) {
+        return count / clusters + (c < count % clusters ? 1 : 0);
+    }
+
+    /**
+     * Runs the configured number of ticks on a fresh arena and prints the throughput.
+     */
+    public void run() {
+        if (replayPath != null) {
+            replay();
+            return;
+        }
+        RobotArena arena;
+        AgentStore store = null;
+        if (loadPath != null) {
+            try {
+                long loadStart = System.nanoTime();
+                MappedSnapshot snapshot = MappedSnapshot.open(loadPath);
+                long mapped = System.nanoTime();
+                if (columnStore) {
+                    arena = snapshot.restoreScene();  // the store ticks the mapped agents without Robot objects
+                    store = AgentStore.fromSnapshot(snapshot);
+                } else {
+                    arena = snapshot.restore();
+                }
+                System.out.println("Mapped " + snapshot.size() + " robots in "
+                        + String.format("%.3f", (mapped - loadStart) / 1e6) + " ms, resumed in "
+                        + String.format("%.3f", (System.nanoTime() - loadStart) / 1e9) + " s");
+                seed = snapshot.getSeed();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot load " + loadPath + ": " + e.getMessage(), e);
+            }
+            applyTickMode(arena);
+        } else if (textPath != null) {
+            try {
+                long loadStart = System.nanoTime();
+                arena = new TextWorldLoader(new TextFile(textPath), threads).load();
+                System.out.println("Parsed " + arena.getRobots().size() + " robots with " + threads
+                        + " threads in " + String.format("%.3f", (System.nanoTime() - loadStart) / 1e9) + " s");
+            } catch (IOException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cannot load " + textPath + ": " + e.getMessage(), e);
+            }
+            seed = arena.getSeed();
+            applyTickMode(arena);
+            if (columnStore) {
+                store = AgentStore.fromRobots(arena.getRobots());
+                store.setSeed(seed);
+            }
+        } else if (journalPath != null && resumeTick >= 0) {
+            try {
+                long loadStart = System.nanoTime();
+                arena = CheckpointJournal.restore(journalPath, resumeTick, threads);
+                System.out.println("Restored tick " + resumeTick + " from the journal in "
+                        + String.format("%.3f", (System.nanoTime() - loadStart) / 1e9) + " s");
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot restore " + journalPath + ": " + e.getMessage(), e);
+            }
+            seed = arena.getSeed();
+            if (columnStore) {
+                store = AgentStore.fromRobots(arena.getRobots());
+                store.setSeed(seed);
+            }
+        } else {
+            arena = createArena();
+            if (columnStore) {
+                store = AgentStore.fromRobots(arena.getRobots());
+                store.setSeed(seed);
+            }
+        }
+        if (jmx) {
+            arena.getMetrics().register("batch");
+            System.out.println("Metrics registered as consoleVersion1:type=RobotArena,name=\"batch\"");
+        }
+        if (overflowed(arena, store)) {
+            throw new IllegalArgumentException("The arena starts with " + population(arena, store)
+                    + " agents, more than --max-agents " + maxAgents);
+        }
+        CheckpointJournal journal = null;
+        if (journalPath != null) {
+            try {
+                journal = new CheckpointJournal(journalPath, JOURNAL_BASE_INTERVAL);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot open " + journalPath + ": " + e.getMessage(), e);
+            }
+        }
+        TerminationMonitor monitor = null;
+        if (stopWhenResolved) {
+            monitor = new TerminationMonitor();
+            if (store == null) {
+                arena.setTerminationMonitor(monitor);
+            }
+        }
+        for (int i = 0; i < warmupTicks && !resolved(monitor) && !overflowed(arena, store); i++) {
+            step(arena, store, monitor);
+            checkpoint(arena, journal);
+        }
+
+        long agentUpdates = 0;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        int ran = 0;
+        while (ran < ticks && !resolved(monitor) && !overflowed(arena, store)) {
+            agentUpdates += population(arena, store);
+            step(arena, store, monitor);
+            checkpoint(arena, journal);
+            ran++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = allocatedBytes() - allocatedBefore;
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot close " + journalPath + ": " + e.getMessage(), e);
+            }
+        }
+
+        System.out.println("Seed: " + seed);
+        System.out.println("Ticks: " + ran + " in " + String.format("%.3f", seconds) + " s");
+        if (monitor != null) {
+            System.out.println(monitor.getReason() == null ? "Resolved: no"
+                    : "Resolved: " + monitor.getReason() + " at tick " + monitor.getResolvedTick());
+        }
+        if (overflowed(arena, store)) {
+            System.out.println("Stopped: " + population(arena, store) + " agents, more than --max-agents " + maxAgents);
+        }
+        System.out.println("Robots at end: " + population(arena, store));
+        if (ran == 0) {
+            System.out.println("The run stopped during the warmup, so no ticks were measured");
+        } else {
+            System.out.println("Ticks/s: " + String.format("%.1f", ran / seconds));
+            System.out.println("Agent-updates/s: " + String.format("%.1f", agentUpdates / seconds));
+            if (allocated >= 0) {
+                System.out.println("Bytes allocated/tick (this thread): " + String.format("%.1f", allocated / (double) ran));
+            }
+        }
+        if (store == null) {
+            TickMetrics m = arena.getMetrics();
+            System.out.println(String.format("Tick p50/p99/max: %.1f / %.1f / %.1f us",
+                    m.getTickP50Micros(), m.getTickP99Micros(), m.getTickMaxMicros()));
+        }
+        if (journal != null) {
+            System.out.println("Journal: " + journal.getCheckpointCount() + " checkpoints, "
+                    + journal.getBytesWritten() + " bytes written, full saves would write "
+                    + journal.getFullSaveBytes());
+        }
+        if (savePath != null) {
+            long saveStart = System.nanoTime();
+            save(arena, savePath);
+            System.out.println("Saved " + arena.getRobots().size() + " robots in "
+                    + String.format("%.3f", (System.nanoTime() - saveStart) / 1e9) + " s");
+        }
+        if (saveTextPath != null) {
+            long saveStart = System.nanoTime();
+            try {
+                TextWorldLoader.save(arena, 0, 0, new TextFile(saveTextPath));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot save " + saveTextPath + ": " + e.getMessage(), e);
+            }
+            System.out.println("Saved " + arena.getRobots().size() + " robots as text in "
+                    + String.format("%.3f", (System.nanoTime() - saveStart) / 1e9) + " s");
+        }
+        if (jmx) {
+            System.out.println("Press Enter to exit");
+            try {
+                System.in.read();
+            } catch (IOException e) {
+                // exit anyway
+            }
+        }
+    }
+
+    /**
+     * Replays a recording headless and prints how long it took.
+     */
+    private void replay() {
+        RunRecording recording;
+        try {
+            recording = RunRecording.read(replayPath);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read " + replayPath + ": " + e.getMessage(), e);
+        }
+        ReplayEngine replay = new ReplayEngine(recording);
+        replay.setThreads(threads);
+        long target = replayTo >= 0 ? replayTo : replay.getEndTick();
+        long start = System.nanoTime();
+        RobotArena arena = replay.seek(target);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("Replayed " + recording.getEvents().size() + " events to tick " + target
+                + " in " + String.format("%.3f", seconds) + " s");
+        System.out.println("Ticks/s: " + String.format("%.1f", target / seconds));
+        System.out.println("Robots at end: " + arena.getRobots().size());
+        if (savePath != null) {
+            save(arena, savePath);
+        }
+    }
+
+    /**
+     * Records a checkpoint if the journal is on and the arena is at a checkpoint tick.
+     */
+    private void checkpoint(RobotArena arena, CheckpointJournal journal) {
+        if (journal == null || arena.getTick() % checkpointInterval != 0) {
+            return;
+        }
+        try {
+            journal.checkpoint(arena);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write " + journalPath + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void save(RobotArena arena, Path path) {
+        try {
+            ArenaSnapshot.capture(arena).write(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot save " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the bytes allocated so far by the calling thread, where the JVM reports it.
+     *
+     * @return the allocated bytes, or -1 if unavailable
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Runs one tick. The arena feeds its own termination monitor, while a store's counts
+     * are fed to the monitor here.
+     */
+    private void step(RobotArena arena, AgentStore store, TerminationMonitor monitor) {
+        if (store != null) {
+            store.update(arena);
+            storeTicks++;
+            if (monitor != null) {
+                monitor.tick(storeTicks, store.count(SpeciesTable.PREDATOR), store.count(SpeciesTable.PREY));
+            }
+        } else {
+            arena.updateRobots();
+        }
+    }
+
+    private static boolean resolved(TerminationMonitor monitor) {
+        return monitor != null && monitor.getReason() != null;
+    }
+
+    private boolean overflowed(RobotArena arena, AgentStore store) {
+        return population(arena, store) > maxAgents;
+    }
+
+    private static int population(RobotArena arena, AgentStore store) {
+        return store != null ? store.size() : arena.getRobots().size();
+    }
+
+    public static void main(String[] args) {
+        new BatchRunner(args).run();
+    }
+}
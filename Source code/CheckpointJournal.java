@@ -0,0 +1,270 @@
+package consoleVersion1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * CheckpointJournal keeps periodic checkpoints of a long run in a directory, writing a full
+ * ArenaSnapshot only now and then and, in between, an append-only log of what changed
+ * since the previous checkpoint: the robots that died, the fields that changed on the
+ * others, and the robots that were born.
+ *
+ * The directory holds segments, each a base snapshot base-TICK.eco followed by its delta
+ * log delta-TICK.log. A new segment starts every baseInterval checkpoints, and whenever the
+ * arena size, seed, tick mode or obstacles change. Every delta record is framed by its length and a
+ * CRC32, so a record cut short by a crash is recognised and ignored when restoring.
+ *
+ * restore() rebuilds any tick from the newest base at or before it, the deltas up to it,
+ * and then, as runs are deterministic, by ticking on from the last checkpoint in the tick
+ * mode the base was written in, which every snapshot holds. compact()
+ * folds everything into a single base at the last checkpoint and deletes older segments.
+ */
+public class CheckpointJournal implements AutoCloseable {
+    private static final String BASE_PREFIX = "base-";
+    private static final String BASE_SUFFIX = ".eco";
+    private static final String DELTA_PREFIX = "delta-";
+    private static final String DELTA_SUFFIX = ".log";
+    private static final int FRAME_BYTES = 8;  // int length, int CRC32 of the record
+
+    private final Path directory;
+    private final int baseInterval;
+    private ArenaSnapshot last;    // state at the last checkpoint, the next delta starts from it
+    private FileChannel deltaLog;  // log of the current segment, null before the first base
+    private int checkpointsSinceBase;
+    private long bytesWritten;     // everything written by this journal
+    private long fullBytes;        // what full snapshots at every checkpoint would have written
+    private int checkpoints;
+
+    /**
+     * Opens a journal directory for writing, creating it if needed. Existing segments are
+     * kept, and the first checkpoint starts a new one.
+     *
+     * @param directory    the journal directory
+     * @param baseInterval the number of checkpoints between full base snapshots, at least 1
+     * @throws IOException if the directory cannot be created
+     */
+    public CheckpointJournal(Path directory, int baseInterval) throws IOException {
+        this.directory = directory;
+        this.baseInterval = Math.max(1, baseInterval);
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Records the current state of an arena. Call it between ticks, on the thread that
+     * runs them.
+     *
+     * @param arena the arena
+     * @throws IOException if the journal cannot be written
+     */
+    public void checkpoint(RobotArena arena) throws IOException {
+        ArenaSnapshot now = ArenaSnapshot.capture(arena);
+        if (last == null || now.getTick() < last.getTick() || !now.hasSameScene(last)
+                || checkpointsSinceBase >= baseInterval) {
+            writeBase(now);
+        } else {
+            appendDelta(now.encodeDelta(last));
+        }
+        last = now;
+        fullBytes += now.byteSize();
+        checkpoints++;
+    }
+
+    /**
+     * Writes a new base from the last checkpoint and deletes every older segment, so that
+     * restoring starts from that checkpoint without replaying deltas. Ticks before it can
+     * no longer be restored.
+     *
+     * @throws IOException if the base cannot be written or old segments deleted
+     */
+    public void compact() throws IOException {
+        if (last == null) {
+            return;
+        }
+        writeBase(last);
+        long keep = last.getTick();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                long tick = segmentTick(file);
+                if (tick >= 0 && tick < keep) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes the journal has written.
+     *
+     * @return the bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Returns the number of bytes full snapshots at each checkpoint would have written.
+     *
+     * @return the bytes of the equivalent full saves
+     */
+    public long getFullSaveBytes() {
+        return fullBytes;
+    }
+
+    /**
+     * Returns the number of checkpoints recorded.
+     *
+     * @return the checkpoint count
+     */
+    public int getCheckpointCount() {
+        return checkpoints;
+    }
+
+    /**
+     * Closes the current delta log.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (deltaLog != null) {
+            deltaLog.close();
+            deltaLog = null;
+        }
+    }
+
+    /**
+     * Starts a new segment: writes the base through a temporary file, so a crash never
+     * leaves a partial base, and opens an empty delta log after it.
+     */
+    private void writeBase(ArenaSnapshot base) throws IOException {
+        close();
+        long tick = base.getTick();
+        Path file = directory.resolve(BASE_PREFIX + tick + BASE_SUFFIX);
+        Path temp = directory.resolve(BASE_PREFIX + tick + BASE_SUFFIX + ".tmp");
+        base.write(temp);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deltaLog = FileChannel.open(directory.resolve(DELTA_PREFIX + tick + DELTA_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        bytesWritten += base.byteSize();
+        checkpointsSinceBase = 0;
+    }
+
+    private void appendDelta(ByteBuffer record) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record.duplicate());
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        frame.putInt(record.remaining()).putInt((int) crc.getValue()).flip();
+        long bytes = FRAME_BYTES + record.remaining();
+        ByteBuffer[] parts = {frame, record};
+        while (record.hasRemaining()) {
+            deltaLog.write(parts);
+        }
+        deltaLog.force(false);
+        bytesWritten += bytes;
+        checkpointsSinceBase++;
+    }
+
+    /**
+     * Rebuilds the arena as it was at a tick, in the tick mode the journal was written in.
+     *
+     * @param directory the journal directory
+     * @param tick      the tick to restore, at or after the journal's first base
+     * @param threads   the number of threads to tick on from the last checkpoint with,
+     *                  which makes phased and double-buffered runs faster and changes nothing else
+     * @return the restored arena, set to that mode and thread count
+     * @throws IOException if the journal has no base at or before the tick, or cannot be read
+     */
+    public static RobotArena restore(Path directory, long tick, int threads) throws IOException {
+        long baseTick = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, BASE_PREFIX + "*" + BASE_SUFFIX)) {
+            for (Path file : files) {
+                long t = segmentTick(file);
+                if (t <= tick && t > baseTick) {
+                    baseTick = t;
+                }
+            }
+        }
+        if (baseTick < 0) {
+            throw new IOException(directory + " has no checkpoint at or before tick " + tick);
+        }
+
+        ArenaSnapshot snapshot = ArenaSnapshot.read(directory.resolve(BASE_PREFIX + baseTick + BASE_SUFFIX));
+        Path log = directory.resolve(DELTA_PREFIX + baseTick + DELTA_SUFFIX);
+        if (Files.exists(log)) {
+            try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+                ByteBuffer record;
+                while ((record = readRecord(channel)) != null && record.getLong(0) <= tick) {
+                    snapshot = snapshot.applyDelta(record);
+                }
+            }
+        }
+
+        RobotArena arena = snapshot.restore();  // in the journal's tick mode
+        arena.setThreads(threads);
+        while (arena.getTick() < tick) {
+            arena.updateRobots();
+        }
+        return arena;
+    }
+
+    /**
+     * Reads the next framed record of a delta log.
+     *
+     * @return the record, or null at the end of the log or at a record cut short or damaged
+     */
+    private static ByteBuffer readRecord(FileChannel channel) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (!readFully(channel, frame)) {
+            return null;
+        }
+        int length = frame.getInt(0);
+        if (length < 0 || length > channel.size() - channel.position()) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        if (!readFully(channel, record)) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.duplicate());
+        return (int) crc.getValue() == frame.getInt(4) ? record : null;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf) < 0) {
+                return false;
+            }
+        }
+        buf.flip();
+        return true;
+    }
+
+    /**
+     * Returns the tick in the name of a base or delta file, or -1 for other files.
+     */
+    private static long segmentTick(Path file) {
+        String name = file.getFileName().toString();
+        String digits;
+        if (name.startsWith(BASE_PREFIX) && name.endsWith(BASE_SUFFIX)) {
+            digits = name.substring(BASE_PREFIX.length(), name.length() - BASE_SUFFIX.length());
+        } else if (name.startsWith(DELTA_PREFIX) && name.endsWith(DELTA_SUFFIX)) {
+            digits = name.substring(DELTA_PREFIX.length(), name.length() - DELTA_SUFFIX.length());
+        } else {
+            return -1;
+        }
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
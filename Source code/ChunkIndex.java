@@ -0,0 +1,147 @@
+package consoleVersion1;
+
+import java.util.Arrays;
+
+/**
+ * ChunkIndex numbers the chunks of a world that are in use, so that grids over very large
+ * arenas only store the chunks that hold something. A chunk is named by its column and row,
+ * and the chunks added since the last clear are numbered 0, 1, 2, ... in the order they
+ * were added, which lets callers keep per-chunk data in plain arrays indexed by that number.
+ *
+ * Lookups go through an open-addressing hash table of packed column and row keys. Clearing
+ * only touches the chunks in use, so neither memory nor time depends on the world size.
+ */
+public class ChunkIndex {
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private int bits = 4;
+    private long[] keys = new long[1 << bits];
+    private int[] numbers = new int[1 << bits];  // chunk number of each table entry, -1 when empty
+    private long[] keyOf = new long[8];          // key of each chunk number
+    private int size;
+
+    /**
+     * Constructs an empty index.
+     */
+    public ChunkIndex() {
+        Arrays.fill(numbers, -1);
+    }
+
+    /**
+     * Returns the number of a chunk.
+     *
+     * @param cx the chunk column
+     * @param cy the chunk row
+     * @return the chunk number, or -1 if the chunk has not been added
+     */
+    public int get(int cx, int cy) {
+        long key = key(cx, cy);
+        int mask = numbers.length - 1;
+        for (int e = hash(key); ; e = (e + 1) & mask) {
+            int n = numbers[e];
+            if (n < 0 || keys[e] == key) {
+                return n;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of a chunk, adding the chunk if it is not in the index yet.
+     *
+     * @param cx the chunk column
+     * @param cy the chunk row
+     * @return the chunk number
+     */
+    public int getOrAdd(int cx, int cy) {
+        long key = key(cx, cy);
+        int mask = numbers.length - 1;
+        int e = hash(key);
+        for (; numbers[e] >= 0; e = (e + 1) & mask) {
+            if (keys[e] == key) {
+                return numbers[e];
+            }
+        }
+        if (size == keyOf.length) {
+            keyOf = Arrays.copyOf(keyOf, size * 2);
+        }
+        keyOf[size] = key;
+        keys[e] = key;
+        numbers[e] = size;
+        if (++size * 2 > numbers.length) {
+            grow();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Returns the number of chunks added since the last clear.
+     *
+     * @return the chunk count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the column of a chunk.
+     *
+     * @param number the chunk number
+     * @return the chunk column
+     */
+    public int getColumn(int number) {
+        return (int) (keyOf[number] >> 32);
+    }
+
+    /**
+     * Returns the row of a chunk.
+     *
+     * @param number the chunk number
+     * @return the chunk row
+     */
+    public int getRow(int number) {
+        return (int) keyOf[number];
+    }
+
+    /**
+     * Removes every chunk, in time proportional to the chunks in use.
+     */
+    public void clear() {
+        int mask = numbers.length - 1;
+        for (int n = 0; n < size; n++) {
+            for (int e = hash(keyOf[n]); ; e = (e + 1) & mask) {
+                if (numbers[e] == n) {
+                    numbers[e] = -1;
+                    break;
+                }
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Doubles the table and re-inserts every chunk.
+     */
+    private void grow() {
+        bits++;
+        keys = new long[1 << bits];
+        numbers = new int[1 << bits];
+        Arrays.fill(numbers, -1);
+        int mask = numbers.length - 1;
+        for (int n = 0; n < size; n++) {
+            int e = hash(keyOf[n]);
+            while (numbers[e] >= 0) {
+                e = (e + 1) & mask;
+            }
+            keys[e] = keyOf[n];
+            numbers[e] = n;
+        }
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private int hash(long key) {
+        return (int) ((key * GAMMA) >>> (64 - bits));
+    }
+}
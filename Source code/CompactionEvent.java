@@ -0,0 +1,29 @@
+package consoleVersion1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * CompactionEvent covers the pass at the end of a tick that removes eaten preys and
+ * appends the newborn ones.
+ */
+@Name("consoleVersion1.Compaction")
+@Label("Removal Compaction")
+@Category({"Ecosystem", "Tick"})
+@Description("Removing eaten preys and appending births")
+public class CompactionEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("Agents")
+    @Description("Robots before compaction")
+    public int agents;
+
+    @Label("Removed")
+    public int removed;
+
+    @Label("Appended")
+    public int appended;
+}
@@ -0,0 +1,228 @@
+package consoleVersion1;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * DecimalParser reads numbers written by Long.toString and Double.toString straight from
+ * ASCII bytes, without building Strings. Doubles are converted with the Eisel-Lemire
+ * algorithm, which gives the same correctly rounded result as Double.parseDouble; the
+ * rare inputs it cannot decide, and those with more than 19 significant digits, fall
+ * back to Double.parseDouble.
+ */
+public final class DecimalParser {
+    private static final int MIN_EXP10 = -348;
+    private static final int MAX_EXP10 = 347;
+    // 128-bit mantissas of 10^e, rounded down, normalised so the top bit is set
+    private static final long[] POW10_HI = new long[MAX_EXP10 - MIN_EXP10 + 1];
+    private static final long[] POW10_LO = new long[MAX_EXP10 - MIN_EXP10 + 1];
+
+    static {
+        BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int e = MIN_EXP10; e <= MAX_EXP10; e++) {
+            BigInteger m;
+            if (e >= 0) {
+                BigInteger p = BigInteger.TEN.pow(e);
+                int shift = p.bitLength() - 128;
+                m = shift >= 0 ? p.shiftRight(shift) : p.shiftLeft(-shift);
+            } else {
+                BigInteger p = BigInteger.TEN.pow(-e);
+                m = BigInteger.ONE.shiftLeft(p.bitLength() + 127).divide(p);
+            }
+            POW10_HI[e - MIN_EXP10] = m.shiftRight(64).longValue();
+            POW10_LO[e - MIN_EXP10] = m.and(mask).longValue();
+        }
+    }
+
+    private DecimalParser() {
+    }
+
+    /**
+     * Parses a decimal integer, with an optional minus sign.
+     *
+     * @param buf  the bytes
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the value
+     * @throws NumberFormatException if the bytes are not an integer
+     */
+    public static long parseLong(ByteBuffer buf, int from, int to) {
+        int i = from;
+        boolean negative = i < to && buf.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == to) {
+            throw error(buf, from, to);
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9 || value < (Long.MIN_VALUE + d) / 10) {
+                throw error(buf, from, to);
+            }
+            value = value * 10 - d;  // accumulate negatively so Long.MIN_VALUE fits
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw error(buf, from, to);
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses a decimal number such as 12.5, -0.25 or 1.0E-5.
+     *
+     * @param buf  the bytes
+     * @param from the index of the first byte
+     * @param to   the index after the last byte
+     * @return the value, rounded as Double.parseDouble rounds it
+     * @throws NumberFormatException if the bytes are not a number
+     */
+    public static double parseDouble(ByteBuffer buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;     // significant digits in mantissa
+        int exp10 = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < to; i++) {
+            byte c = buf.get(i);
+            if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && c == '0') {
+                    if (seenPoint) {
+                        exp10--;  // leading zeros after the point only scale
+                    }
+                    continue;
+                }
+                if (digits == 19) {
+                    return slowParse(buf, from, to);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (seenPoint) {
+                    exp10--;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (!seenDigit) {
+            return slowParse(buf, from, to);  // NaN, Infinity, or an error
+        }
+        if (i < to && (buf.get(i) == 'E' || buf.get(i) == 'e')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+                negativeExp = buf.get(i) == '-';
+                i++;
+            }
+            if (i == to) {
+                throw error(buf, from, to);
+            }
+            int exp = 0;
+            for (; i < to; i++) {
+                int d = buf.get(i) - '0';
+                if (d < 0 || d > 9) {
+                    throw error(buf, from, to);
+                }
+                if (exp < 100000) {
+                    exp = exp * 10 + d;
+                }
+            }
+            exp10 += negativeExp ? -exp : exp;
+        }
+        if (i != to) {
+            throw error(buf, from, to);
+        }
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        long bits = eiselLemire(mantissa, exp10);
+        if (bits < 0) {
+            return slowParse(buf, from, to);
+        }
+        return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+    }
+
+    /**
+     * Converts mantissa * 10^exp10 to the bits of the nearest double.
+     *
+     * @param mantissa a non-zero mantissa of at most 19 digits
+     * @param exp10    the decimal exponent
+     * @return the bits of the positive double, or -1 if this method cannot decide
+     */
+    private static long eiselLemire(long mantissa, int exp10) {
+        if (exp10 < MIN_EXP10 || exp10 > MAX_EXP10) {
+            return -1;
+        }
+        int clz = Long.numberOfLeadingZeros(mantissa);
+        long man = mantissa << clz;
+        long exp2 = ((217706L * exp10) >> 16) + 64 + 1023 - clz;
+
+        int index = exp10 - MIN_EXP10;
+        long xHi = unsignedMultiplyHigh(man, POW10_HI[index]);
+        long xLo = man * POW10_HI[index];
+
+        // Widen to the full 128-bit power when the truncated product may be off by a carry
+        if ((xHi & 0x1FF) == 0x1FF && Long.compareUnsigned(xLo + man, man) < 0) {
+            long yHi = unsignedMultiplyHigh(man, POW10_LO[index]);
+            long yLo = man * POW10_LO[index];
+            long mergedHi = xHi;
+            long mergedLo = xLo + yHi;
+            if (Long.compareUnsigned(mergedLo, xLo) < 0) {
+                mergedHi++;
+            }
+            if ((mergedHi & 0x1FF) == 0x1FF && mergedLo + 1 == 0 && Long.compareUnsigned(yLo + man, man) < 0) {
+                return -1;
+            }
+            xHi = mergedHi;
+            xLo = mergedLo;
+        }
+
+        long msb = xHi >>> 63;
+        long result = xHi >>> (msb + 9);
+        exp2 -= 1 ^ msb;
+        if (xLo == 0 && (xHi & 0x1FF) == 0 && (result & 3) == 1) {
+            return -1;  // exactly half way, round to even needs the exact value
+        }
+        result += result & 1;
+        result >>>= 1;
+        if ((result >>> 53) > 0) {
+            result >>>= 1;
+            exp2++;
+        }
+        if (exp2 <= 0 || exp2 >= 0x7FF) {
+            return -1;  // subnormal or overflow
+        }
+        return exp2 << 52 | (result & 0x000FFFFFFFFFFFFFL);
+    }
+
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    private static double slowParse(ByteBuffer buf, int from, int to) {
+        return Double.parseDouble(text(buf, from, to));
+    }
+
+    private static NumberFormatException error(ByteBuffer buf, int from, int to) {
+        return new NumberFormatException("For input string: \"" + text(buf, from, to) + "\"");
+    }
+
+    private static String text(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++) {
+            bytes[i - from] = buf.get(i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
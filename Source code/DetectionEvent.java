@@ -0,0 +1,32 @@
+package consoleVersion1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * DetectionEvent sums the prey searches done by predators during one tick. Searches are
+ * interleaved with movement, so their total time is a field rather than the event duration.
+ */
+@Name("consoleVersion1.Detection")
+@Label("Predator Detection")
+@Category({"Ecosystem", "Tick"})
+@Description("Prey searches made by predators in one tick")
+public class DetectionEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("Searches")
+    @Description("Predators whose cooldown had run out")
+    public int searches;
+
+    @Label("Claims")
+    @Description("Searches that found a prey")
+    public int claims;
+
+    @Label("Search Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long searchTime;
+}
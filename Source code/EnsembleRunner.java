@@ -0,0 +1,226 @@
+package consoleVersion1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * EnsembleRunner runs one scenario under many seeds at once and streams population
+ * statistics across the runs as they go, so the spread caused by random trees, spawn
+ * positions and stuck turns can be seen rather than guessed from a single run.
+ *
+ * Usage: java consoleVersion1.EnsembleRunner [--runs N] [--ticks N] [--every N]
+ *        [--predators N] [--preys N] [--width N] [--height N] [--trees N]
+ *        [--seed N] [--threads N] [--max-agents N] [--stop 0|1]
+ *
+ * Run i uses seed --seed + i, so any one run can be reproduced with BatchRunner. The runs
+ * advance together in blocks of --every ticks on a work-stealing pool. After each block
+ * the predator and prey counts of every run are reduced to a mean and the 5th, 50th and
+ * 95th percentiles, and one line is printed. Only the current counts are kept, so memory
+ * does not grow with the run length. A run whose agents pass --max-agents is stopped and
+ * kept in the statistics at its counts when it passed, so that the runs that grow fastest
+ * do not drop out and bias them. The over column gives the runs stopped this way, and n
+ * is always the whole ensemble.
+ *
+ * Unless --stop is 0, each run also has a TerminationMonitor. A run stops ticking once it
+ * resolves, because a species died out or the populations reached a steady state, and
+ * keeps its final counts from then on. The done column gives the runs resolved so far, and
+ * the ensemble ends early once they all are.
+ */
+public class EnsembleRunner {
+    private int runs = 100;
+    private int ticks = 10000;
+    private int every = 100;
+    private int predatorCount = 10;
+    private int preyCount = 50;
+    private int arenaWidth = 25;
+    private int arenaHeight = 25;
+    private int treeCount = 2;
+    private long seed = SimRandom.freshSeed();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxAgents = 1_000_000;
+    private boolean stopWhenResolved = true;
+
+    /**
+     * Parses the command line options, leaving defaults for any that are not given.
+     *
+     * @param args the command line arguments
+     */
+    public EnsembleRunner(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--runs": runs = Integer.parseInt(value); break;
+                case "--ticks": ticks = Integer.parseInt(value); break;
+                case "--every": every = Math.max(1, Integer.parseInt(value)); break;
+                case "--predators": predatorCount = Integer.parseInt(value); break;
+                case "--preys": preyCount = Integer.parseInt(value); break;
+                case "--width": arenaWidth = Integer.parseInt(value); break;
+                case "--height": arenaHeight = Integer.parseInt(value); break;
+                case "--trees": treeCount = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--threads": threads = Math.max(1, Integer.parseInt(value)); break;
+                case "--max-agents": maxAgents = Integer.parseInt(value); break;
+                case "--stop": stopWhenResolved = Integer.parseInt(value) != 0; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Member is one run of the ensemble, with its population after the last block.
+     */
+    private final class Member implements Callable<Member> {
+        private RobotArena arena;  // null once the run overflows, as only its counts are kept
+        int predators, prey;
+        boolean overflowed;
+
+        Member(long memberSeed) {
+            arena = new RobotArena(arenaWidth, arenaHeight, memberSeed);
+            arena.addRandomObstacles(treeCount, 0.2, 0.2);
+            arena.addRandomRobots(predatorCount, preyCount);
+            if (stopWhenResolved) {
+                arena.setTerminationMonitor(new TerminationMonitor());
+            }
+            count();
+        }
+
+        /**
+         * Runs the next block of ticks.
+         */
+        @Override
+        public Member call() {
+            long end = Math.min(arena.getTick() + every, ticks);
+            while (arena.getTick() < end && !isResolved()) {
+                arena.updateRobots();
+                if (arena.getRobots().size() > maxAgents) {
+                    overflowed = true;
+                    break;
+                }
+            }
+            count();
+            if (overflowed) {
+                arena = null;
+            }
+            return this;
+        }
+
+        boolean isResolved() {
+            return arena != null && arena.getTermination() != null;
+        }
+
+        boolean isStopped() {
+            return overflowed || isResolved();
+        }
+
+        private void count() {
+            prey = arena.getPreyCount();
+            predators = arena.getPredatorCount();
+        }
+    }
+
+    /**
+     * Runs the ensemble, printing a line of statistics after each block.
+     */
+    public void run() {
+        System.out.println("Ensemble of " + runs + " runs of " + ticks + " ticks on "
+                + arenaWidth + "x" + arenaHeight + " with " + threads + " threads, seeds "
+                + seed + " to " + (seed + runs - 1));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Member> members = new ArrayList<>(pool.submit(() -> {
+                List<Member> created = new ArrayList<>(runs);
+                for (int i = 0; i < runs; i++) {
+                    created.add(new Member(seed + i));
+                }
+                return created;
+            }).get());
+            System.out.println(String.format(Locale.ROOT, "%8s %5s %5s %5s | %9s %7s %7s %7s | %9s %7s %7s %7s",
+                    "tick", "n", "done", "over", "pred mean", "p5", "p50", "p95", "prey mean", "p5", "p50", "p95"));
+            print(0, members);
+            for (long tick = 0; tick < ticks && !members.stream().allMatch(Member::isStopped); ) {
+                tick = Math.min(tick + every, ticks);
+                List<Member> running = new ArrayList<>();
+                for (Member m : members) {
+                    if (!m.overflowed) {
+                        running.add(m);
+                    }
+                }
+                for (Future<Member> f : pool.invokeAll(running)) {
+                    f.get();
+                }
+                print(tick, members);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A run failed: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println(String.format(Locale.ROOT, "Done in %.3f s", (System.nanoTime() - start) / 1e9));
+    }
+
+    private static void print(long tick, List<Member> members) {
+        int n = members.size();
+        int[] predators = new int[n];
+        int[] prey = new int[n];
+        int done = 0, over = 0;
+        for (int i = 0; i < n; i++) {
+            Member m = members.get(i);
+            predators[i] = m.predators;
+            prey[i] = m.prey;
+            if (m.isResolved()) {
+                done++;
+            }
+            if (m.overflowed) {
+                over++;
+            }
+        }
+        System.out.println(String.format(Locale.ROOT, "%8d %5d %5d %5d | %s | %s", tick, n, done, over,
+                summary(predators), summary(prey)));
+    }
+
+    /**
+     * Formats the mean and the 5th, 50th and 95th percentiles of a set of counts.
+     */
+    private static String summary(int[] counts) {
+        if (counts.length == 0) {
+            return String.format(Locale.ROOT, "%9s %7s %7s %7s", "-", "-", "-", "-");
+        }
+        Arrays.sort(counts);
+        double sum = 0;
+        for (int c : counts) {
+            sum += c;
+        }
+        return String.format(Locale.ROOT, "%9.1f %7d %7d %7d", sum / counts.length,
+                percentile(counts, 5), percentile(counts, 50), percentile(counts, 95));
+    }
+
+    /**
+     * Returns a percentile of sorted counts, by the nearest-rank method.
+     *
+     * @param sorted the counts, in ascending order
+     * @param p      the percentile, from 0 to 100
+     * @return the count at that percentile
+     */
+    static int percentile(int[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Runs an ensemble from the command line.
+     *
+     * @param args see the class comment
+     */
+    public static void main(String[] args) {
+        new EnsembleRunner(args).run();
+    }
+}
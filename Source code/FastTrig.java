@@ -0,0 +1,73 @@
+package consoleVersion1;
+
+/**
+ * FastTrig looks up sines and cosines of angles in degrees in a table with linear
+ * interpolation, accurate to within 3e-7. Robots only evaluate a heading when it changes,
+ * so the table mostly helps on platforms where Math.sin is not an intrinsic. It is off
+ * by default, in which case the exact Math functions are used.
+ */
+public class FastTrig {
+    private static final int STEPS = 4096;  // table entries per full turn
+    private static final double STEPS_PER_DEGREE = STEPS / 360.0;
+    private static final double[] SIN = new double[STEPS + 1];
+    private static boolean enabled = false;
+
+    static {
+        for (int i = 0; i <= STEPS; i++) {
+            SIN[i] = Math.sin(2 * Math.PI * i / STEPS);
+        }
+    }
+
+    /**
+     * Enables or disables the lookup table for all robots. Set this before a run starts,
+     * as robots already created keep the headings they computed.
+     *
+     * @param on true to use the table, false for Math.sin and Math.cos
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Checks whether the lookup table is in use.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the sine of an angle.
+     *
+     * @param degrees the angle in degrees
+     * @return the sine
+     */
+    public static double sinDeg(double degrees) {
+        if (!enabled) {
+            return Math.sin(Math.toRadians(degrees));
+        }
+        return lookup(degrees);
+    }
+
+    /**
+     * Returns the cosine of an angle.
+     *
+     * @param degrees the angle in degrees
+     * @return the cosine
+     */
+    public static double cosDeg(double degrees) {
+        if (!enabled) {
+            return Math.cos(Math.toRadians(degrees));
+        }
+        return lookup(degrees + 90);
+    }
+
+    private static double lookup(double degrees) {
+        double pos = degrees * STEPS_PER_DEGREE;
+        double floor = Math.floor(pos);
+        int i = (int) ((long) floor & (STEPS - 1));
+        double frac = pos - floor;
+        return SIN[i] + (SIN[i + 1] - SIN[i]) * frac;
+    }
+}
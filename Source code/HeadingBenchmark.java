@@ -0,0 +1,147 @@
+package consoleVersion1;
+
+/**
+ * HeadingBenchmark compares the movement step computing sine and cosine of the angle every
+ * tick, as Robot.move used to, against a cached direction vector reflected by flipping
+ * its components, and then times whole arena ticks with and without FastTrig.
+ *
+ * Usage: java consoleVersion1.HeadingBenchmark [agents] [ticks]
+ */
+public class HeadingBenchmark {
+    private static final double SIZE = 1000;
+    private static final double SPEED = 0.5;
+
+    /**
+     * Steps agents the old way, evaluating the heading from the angle on every tick.
+     *
+     * @return a checksum of the positions, so the work cannot be optimised away
+     */
+    static double stepWithTrig(double[] x, double[] y, double[] angle, int ticks, boolean fast) {
+        for (int t = 0; t < ticks; t++) {
+            for (int i = 0; i < x.length; i++) {
+                double a = angle[i];
+                double newX = x[i] + SPEED * (fast ? FastTrig.cosDeg(a) : Math.cos(Math.toRadians(a)));
+                double newY = y[i] + SPEED * (fast ? FastTrig.sinDeg(a) : Math.sin(Math.toRadians(a)));
+                boolean hit = false;
+                if (newX < 0 || newX >= SIZE) {
+                    angle[i] = 180 - a;
+                    hit = true;
+                }
+                if (newY < 0 || newY >= SIZE) {
+                    angle[i] = -angle[i];
+                    hit = true;
+                }
+                if (!hit) {
+                    x[i] = newX;
+                    y[i] = newY;
+                }
+            }
+        }
+        return checksum(x, y);
+    }
+
+    /**
+     * Steps agents with a cached unit vector that is only changed by a bounce.
+     *
+     * @return a checksum of the positions
+     */
+    static double stepWithVector(double[] x, double[] y, double[] dirX, double[] dirY, int ticks) {
+        for (int t = 0; t < ticks; t++) {
+            for (int i = 0; i < x.length; i++) {
+                double newX = x[i] + SPEED * dirX[i];
+                double newY = y[i] + SPEED * dirY[i];
+                boolean hit = false;
+                if (newX < 0 || newX >= SIZE) {
+                    dirX[i] = -dirX[i];
+                    hit = true;
+                }
+                if (newY < 0 || newY >= SIZE) {
+                    dirY[i] = -dirY[i];
+                    hit = true;
+                }
+                if (!hit) {
+                    x[i] = newX;
+                    y[i] = newY;
+                }
+            }
+        }
+        return checksum(x, y);
+    }
+
+    private static double checksum(double[] x, double[] y) {
+        double sum = 0;
+        for (int i = 0; i < x.length; i++) {
+            sum += x[i] + y[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Times one variant of the step on fresh copies of the same agents, best of three.
+     *
+     * @return the nanoseconds per agent-update
+     */
+    static double time(int variant, int agents, int ticks) {
+        double best = Double.MAX_VALUE;
+        for (int repeat = 0; repeat < 3; repeat++) {
+            SimRandom random = new SimRandom(1);
+            double[] x = new double[agents], y = new double[agents], angle = new double[agents];
+            double[] dirX = new double[agents], dirY = new double[agents];
+            for (int i = 0; i < agents; i++) {
+                x[i] = random.nextDouble() * SIZE;
+                y[i] = random.nextDouble() * SIZE;
+                angle[i] = random.nextDouble() * 360;
+                dirX[i] = Math.cos(Math.toRadians(angle[i]));
+                dirY[i] = Math.sin(Math.toRadians(angle[i]));
+            }
+            long start = System.nanoTime();
+            double sum = variant == 2 ? stepWithVector(x, y, dirX, dirY, ticks)
+                    : stepWithTrig(x, y, angle, ticks, variant == 1);
+            long elapsed = System.nanoTime() - start;
+            if (sum == 42) {
+                System.out.println();
+            }
+            best = Math.min(best, elapsed / (double) agents / ticks);
+        }
+        return best;
+    }
+
+    /**
+     * Times whole ticks of a seeded arena.
+     *
+     * @return the milliseconds per tick
+     */
+    static double timeArena(int agents, int ticks, boolean fastTrig) {
+        FastTrig.setEnabled(fastTrig);
+        int side = (int) Math.ceil(Math.sqrt(agents / 0.08));
+        RobotArena arena = new RobotArena(side, side, 1);
+        arena.addRandomObstacles(side / 5, 0.2, 0.2);
+        arena.addRandomRobots(agents / 10, agents - agents / 10);
+        for (int i = 0; i < ticks / 4; i++) {
+            arena.updateRobots();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            arena.updateRobots();
+        }
+        double ms = (System.nanoTime() - start) / 1e6 / ticks;
+        FastTrig.setEnabled(false);
+        return ms;
+    }
+
+    public static void main(String[] args) {
+        int agents = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        String[] names = {"Math trig per tick", "FastTrig per tick", "Cached vector"};
+        for (int variant = 0; variant < 3; variant++) {
+            time(variant, agents, ticks / 4);  // warm up
+        }
+        for (int variant = 0; variant < 3; variant++) {
+            System.out.println(String.format("%-20s %6.2f ns/agent-update", names[variant], time(variant, agents, ticks)));
+        }
+
+        System.out.println(String.format("Arena tick, Math trig: %8.2f ms", timeArena(agents / 10, ticks, false)));
+        System.out.println(String.format("Arena tick, FastTrig:  %8.2f ms", timeArena(agents / 10, ticks, true)));
+    }
+}
@@ -0,0 +1,158 @@
+package consoleVersion1;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * KeyframeHistory keeps the recent past of a run so that it can be rewound. Every interval
+ * ticks it keeps an ArenaSnapshot of the arena as a keyframe, and any tick since the oldest
+ * keyframe is rebuilt by restoring the nearest keyframe at or before it and, as ticks are
+ * deterministic, ticking forward from there.
+ *
+ * The keyframes are held in a ring bounded by a byte budget: once they hold more, the
+ * oldest are dropped, so memory stays fixed however long the run goes on and the history
+ * reaches back as far as the budget allows. A change made between ticks breaks the replay
+ * from earlier keyframes, so changed() takes an extra keyframe right after it.
+ *
+ * tick() and changed() are called on the thread that ticks the arena; the range getters
+ * may be called from any thread.
+ */
+public class KeyframeHistory {
+    private final int interval;
+    private final long maxBytes;
+    private final ArrayDeque<ArenaSnapshot> keyframes = new ArrayDeque<>();
+    private long bytes;
+
+    /**
+     * Constructs an empty history.
+     *
+     * @param interval the number of ticks between keyframes
+     * @param maxBytes the most memory the keyframes may use, though the newest keyframe is
+     *                 always kept
+     */
+    public KeyframeHistory(int interval, long maxBytes) {
+        this.interval = Math.max(1, interval);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Takes a keyframe if the arena has just reached a keyframe tick. Call it after every tick.
+     *
+     * @param arena the arena
+     */
+    public void tick(RobotArena arena) {
+        if (arena.getTick() % interval == 0) {
+            add(arena);
+        }
+    }
+
+    /**
+     * Takes a keyframe after the arena was changed between ticks, replacing any keyframe
+     * already taken at this tick.
+     *
+     * @param arena the arena
+     */
+    public void changed(RobotArena arena) {
+        add(arena);
+    }
+
+    private synchronized void add(RobotArena arena) {
+        ArenaSnapshot last = keyframes.peekLast();
+        if (last != null && last.getTick() >= arena.getTick()) {
+            discardAfter(arena.getTick() - 1);
+        }
+        ArenaSnapshot keyframe = ArenaSnapshot.capture(arena);
+        keyframes.addLast(keyframe);
+        bytes += keyframe.byteSize();
+        while (bytes > maxBytes && keyframes.size() > 1) {
+            bytes -= keyframes.removeFirst().byteSize();
+        }
+    }
+
+    /**
+     * Drops every keyframe.
+     */
+    public synchronized void clear() {
+        keyframes.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Drops the keyframes after a tick, once the run has been rewound to it.
+     *
+     * @param tick the last tick to keep
+     */
+    public synchronized void discardAfter(long tick) {
+        while (!keyframes.isEmpty() && keyframes.peekLast().getTick() > tick) {
+            bytes -= keyframes.removeLast().byteSize();
+        }
+    }
+
+    /**
+     * Returns the earliest tick that can be rebuilt.
+     *
+     * @return the tick of the oldest keyframe, or -1 if there is none
+     */
+    public synchronized long getOldestTick() {
+        return keyframes.isEmpty() ? -1 : keyframes.peekFirst().getTick();
+    }
+
+    /**
+     * Returns the tick of the newest keyframe.
+     *
+     * @return the tick, or -1 if there is none
+     */
+    public synchronized long getNewestTick() {
+        return keyframes.isEmpty() ? -1 : keyframes.peekLast().getTick();
+    }
+
+    /**
+     * Returns the number of keyframes held.
+     *
+     * @return the keyframe count
+     */
+    public synchronized int size() {
+        return keyframes.size();
+    }
+
+    /**
+     * Returns the memory the keyframes use.
+     *
+     * @return the size of the keyframes in bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Rebuilds the arena as it was at a tick, from the nearest keyframe at or before it.
+     * The tick should not be past the tick the run has reached. The ticks after the
+     * keyframe are run again in the tick mode of the run's arena, as the modes lead to
+     * different states.
+     *
+     * @param tick    the tick
+     * @param current the run's arena, whose tick mode and thread count are copied
+     * @return a new arena at that tick in that mode, or null if the tick is before the oldest keyframe
+     */
+    public RobotArena restore(long tick, RobotArena current) {
+        ArenaSnapshot from = null;
+        synchronized (this) {
+            for (Iterator<ArenaSnapshot> it = keyframes.descendingIterator(); it.hasNext(); ) {
+                ArenaSnapshot keyframe = it.next();
+                if (keyframe.getTick() <= tick) {
+                    from = keyframe;
+                    break;
+                }
+            }
+        }
+        if (from == null) {
+            return null;
+        }
+        RobotArena arena = from.restore();
+        arena.copyTickMode(current);
+        while (arena.getTick() < tick) {
+            arena.updateRobots();
+        }
+        return arena;
+    }
+}
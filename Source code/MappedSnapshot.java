@@ -0,0 +1,323 @@
+package consoleVersion1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedSnapshot opens an ArenaSnapshot file by memory-mapping its columns instead of
+ * reading them. Opening only parses the header, so it takes the same time for a thousand
+ * robots as for millions. The operating system pages columns in as they are first
+ * touched, and nothing is copied onto the heap until asked for. Resuming a run still
+ * copies every agent, into an AgentStore or into Robot objects, so it takes time in
+ * proportion to the number of agents; only the open is constant.
+ *
+ * Values are read straight from the mapping with the getters, a single robot can be built
+ * with getRobot(), and AgentStore.fromSnapshot() ticks the agents without building any
+ * Robot objects. restore() builds the whole arena as ArenaSnapshot.restore() does.
+ *
+ * Each column is mapped on its own, so files larger than 2 GB can be opened. A mapping
+ * stays valid after the file is closed, until the snapshot is garbage collected, and on
+ * some platforms the file cannot be replaced while it is mapped.
+ */
+public class MappedSnapshot {
+    private final Path path;
+    private final ArenaSnapshot.Header header;
+    private final ByteBuffer species, flags;
+    private final IntBuffer id;
+    private final DoubleBuffer x, y, angle, dirX, dirY;
+    private final LongBuffer randomStates;
+    private final IntBuffer stuck, counter;
+    private final DoubleBuffer obstacleX, obstacleY, obstacleWidth, obstacleHeight;
+
+    private MappedSnapshot(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        ByteBuffer head = map(channel, 0, Math.min(channel.size(), 1 << 16));
+        header = ArenaSnapshot.Header.parse(head, path);
+        int n = header.robotCount;
+        int m = header.obstacleCount;
+        long expected = header.columnsOffset + (long) n * ArenaSnapshot.ROW_BYTES + (long) m * 4 * 8;
+        if (channel.size() < expected) {
+            throw new IOException(path + " is truncated: " + channel.size() + " bytes, expected " + expected);
+        }
+
+        long pos = header.columnsOffset;
+        species = map(channel, pos, n);
+        pos += n;
+        flags = map(channel, pos, n);
+        pos += n;
+        id = map(channel, pos, 4L * n).asIntBuffer();
+        pos += 4L * n;
+        x = map(channel, pos, 8L * n).asDoubleBuffer();
+        pos += 8L * n;
+        y = map(channel, pos, 8L * n).asDoubleBuffer();
+        pos += 8L * n;
+        angle = map(channel, pos, 8L * n).asDoubleBuffer();
+        pos += 8L * n;
+        dirX = map(channel, pos, 8L * n).asDoubleBuffer();
+        pos += 8L * n;
+        dirY = map(channel, pos, 8L * n).asDoubleBuffer();
+        pos += 8L * n;
+        randomStates = map(channel, pos, 8L * n).asLongBuffer();
+        pos += 8L * n;
+        stuck = map(channel, pos, 4L * n).asIntBuffer();
+        pos += 4L * n;
+        counter = map(channel, pos, 4L * n).asIntBuffer();
+        pos += 4L * n;
+        obstacleX = map(channel, pos, 8L * m).asDoubleBuffer();
+        pos += 8L * m;
+        obstacleY = map(channel, pos, 8L * m).asDoubleBuffer();
+        pos += 8L * m;
+        obstacleWidth = map(channel, pos, 8L * m).asDoubleBuffer();
+        pos += 8L * m;
+        obstacleHeight = map(channel, pos, 8L * m).asDoubleBuffer();
+    }
+
+    /**
+     * Maps a snapshot file written by ArenaSnapshot.write().
+     *
+     * @param path the file to map
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be mapped or is not a snapshot of a known version
+     */
+    public static MappedSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedSnapshot(path, channel);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long bytes) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Builds an arena with the snapshot's size, random state, tick, tick mode and
+     * obstacles, but no robots, for an AgentStore to tick in.
+     *
+     * @return the arena
+     */
+    public RobotArena restoreScene() {
+        RobotArena arena = new RobotArena(header.xSize, header.ySize, header.seed);
+        arena.resume(header.randomState, header.tick);
+        arena.setTickMode(header.tickMode);
+        for (int i = 0; i < header.obstacleCount; i++) {
+            arena.addObstacle(new Obstacle(obstacleX.get(i), obstacleY.get(i),
+                    obstacleWidth.get(i), obstacleHeight.get(i)));
+        }
+        return arena;
+    }
+
+    /**
+     * Builds a new arena in the state the snapshot was taken in, with a Robot object for
+     * every robot.
+     *
+     * @return the restored arena
+     * @throws IOException if a robot has a species the file does not declare
+     */
+    public RobotArena restore() throws IOException {
+        RobotArena arena = restoreScene();
+        int maxId = -1;
+        for (int i = 0; i < header.robotCount; i++) {
+            arena.addRobot(getRobot(i));
+            maxId = Math.max(maxId, id.get(i));
+        }
+        Robot.reserveIds(maxId + 1);
+        return arena;
+    }
+
+    /**
+     * Builds the Robot object for one robot of the snapshot, with its saved ID.
+     *
+     * @param i the robot index
+     * @return the robot
+     * @throws IOException if the robot has a species the file does not declare
+     */
+    public Robot getRobot(int i) throws IOException {
+        Robot r;
+        if (getSpecies(i) == SpeciesTable.PREDATOR) {
+            Predator p = new Predator(x.get(i), y.get(i), angle.get(i));
+            p.setDetectionCooldown(counter.get(i));
+            r = p;
+        } else {
+            Prey p = new Prey(x.get(i), y.get(i), angle.get(i));
+            p.setSurvivalCounter(counter.get(i));
+            if ((getFlags(i) & ArenaSnapshot.FLAG_MARKED) != 0) {
+                p.markForRemoval();
+            }
+            r = p;
+        }
+        r.restore(id.get(i), dirX.get(i), dirY.get(i), randomStates.get(i), stuck.get(i));
+        return r;
+    }
+
+    /**
+     * Returns the number of robots in the snapshot.
+     *
+     * @return the number of robots
+     */
+    public int size() {
+        return header.robotCount;
+    }
+
+    /**
+     * Returns the number of obstacles in the snapshot.
+     *
+     * @return the number of obstacles
+     */
+    public int getObstacleCount() {
+        return header.obstacleCount;
+    }
+
+    /**
+     * Returns the tick the snapshot was taken at.
+     *
+     * @return the tick count
+     */
+    public long getTick() {
+        return header.tick;
+    }
+
+    /**
+     * Returns the seed of the saved arena.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return header.seed;
+    }
+
+    /**
+     * Returns the state of the saved arena's random stream.
+     *
+     * @return the random state
+     */
+    public long getRandomState() {
+        return header.randomState;
+    }
+
+    /**
+     * Returns the saved view width, or 0 if none was saved.
+     *
+     * @return the view width in pixels
+     */
+    public int getViewWidth() {
+        return header.viewWidth;
+    }
+
+    /**
+     * Returns the saved view height, or 0 if none was saved.
+     *
+     * @return the view height in pixels
+     */
+    public int getViewHeight() {
+        return header.viewHeight;
+    }
+
+    /**
+     * Returns the species of a robot.
+     *
+     * @param i the robot index
+     * @return the SpeciesTable index
+     * @throws IOException if the robot has a species the file does not declare
+     */
+    public int getSpecies(int i) throws IOException {
+        return header.species(species.get(i), path);
+    }
+
+    /**
+     * Returns the flags of a robot, a set of ArenaSnapshot.FLAG_ bits.
+     *
+     * @param i the robot index
+     * @return the flags
+     */
+    public int getFlags(int i) {
+        return flags.get(i);
+    }
+
+    /**
+     * Returns the ID of a robot.
+     *
+     * @param i the robot index
+     * @return the robot ID
+     */
+    public int getId(int i) {
+        return id.get(i);
+    }
+
+    /**
+     * Returns the x-coordinate of a robot.
+     *
+     * @param i the robot index
+     * @return the x-coordinate
+     */
+    public double getX(int i) {
+        return x.get(i);
+    }
+
+    /**
+     * Returns the y-coordinate of a robot.
+     *
+     * @param i the robot index
+     * @return the y-coordinate
+     */
+    public double getY(int i) {
+        return y.get(i);
+    }
+
+    /**
+     * Returns the angle of a robot.
+     *
+     * @param i the robot index
+     * @return the angle in degrees
+     */
+    public double getAngle(int i) {
+        return angle.get(i);
+    }
+
+    /**
+     * Returns the x-component of a robot's direction vector.
+     *
+     * @param i the robot index
+     * @return the x-component
+     */
+    public double getDirX(int i) {
+        return dirX.get(i);
+    }
+
+    /**
+     * Returns the y-component of a robot's direction vector.
+     *
+     * @param i the robot index
+     * @return the y-component
+     */
+    public double getDirY(int i) {
+        return dirY.get(i);
+    }
+
+    /**
+     * Returns the stuck counter of a robot.
+     *
+     * @param i the robot index
+     * @return the number of consecutive blocked moves
+     */
+    public int getStuckCounter(int i) {
+        return stuck.get(i);
+    }
+
+    /**
+     * Returns the species counter of a robot: the detection cooldown of a predator or the
+     * survival counter of a prey.
+     *
+     * @param i the robot index
+     * @return the counter
+     */
+    public int getCounter(int i) {
+        return counter.get(i);
+    }
+}
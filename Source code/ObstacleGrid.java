@@ -0,0 +1,174 @@
+package consoleVersion1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * ObstacleGrid rasterises the static obstacles of an arena into square cells, so a moving
+ * robot only tests the obstacles in the cells its bounding box touches. An occupancy bitset
+ * answers the common case of empty cells without touching the per-cell lists, which are
+ * packed into one array of obstacle indices in list order.
+ *
+ * The cell size grows with the arena so that there are at most a few cells per obstacle,
+ * which keeps the grid small for sparse scenes and the cells short for dense forests. It
+ * stops growing at MAX_CELL_SIZE, so that obstacles clustered in a huge arena are not
+ * lumped into a few giant cells. Cells are stored in chunks of 8 x 8, one occupancy word
+ * per chunk, and only the chunks holding an obstacle exist, so the grid's memory follows
+ * the obstacles and not the arena size.
+ */
+public class ObstacleGrid {
+    private static final int CELLS_PER_OBSTACLE = 4;
+    /** The largest cell side, in arena units. */
+    public static final double MAX_CELL_SIZE = 16;
+    private static final int CHUNK_BITS = 3;  // a chunk is 8 x 8 cells, one bit each in a long
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int CHUNK_CELLS = 1 << (2 * CHUNK_BITS);
+
+    private Obstacle[] obstacles = new Obstacle[0];
+    private double cellSize = 1;
+    private int cols = 1, rows = 1;
+    private final ChunkIndex chunks = new ChunkIndex();
+    private long[] occupied = new long[0];  // one bit per cell with at least one obstacle, one word per chunk
+    private int[] cellStart = new int[1];   // entries of cell c are cellStart[c] to cellStart[c + 1] - 1
+    private int[] entries = new int[0];     // obstacle indices, ascending within each cell
+
+    /**
+     * Rebuilds the grid for a list of obstacles.
+     *
+     * @param list  the obstacles, in the order collisions are resolved in
+     * @param xSize the width of the arena
+     * @param ySize the height of the arena
+     */
+    public void bake(ArrayList<Obstacle> list, int xSize, int ySize) {
+        obstacles = list.toArray(new Obstacle[0]);
+        int n = obstacles.length;
+        double area = Math.max(1.0, (double) xSize * ySize);
+        cellSize = Math.min(MAX_CELL_SIZE, Math.max(1.0, Math.sqrt(area / Math.max(1, n * CELLS_PER_OBSTACLE))));
+        cols = Math.max(1, (int) Math.ceil(xSize / cellSize));
+        rows = Math.max(1, (int) Math.ceil(ySize / cellSize));
+        chunks.clear();
+        cellStart = new int[CHUNK_CELLS + 1];
+
+        // Count the entries of each cell, adding chunks as obstacles reach them
+        for (int i = 0; i < n; i++) {
+            Obstacle o = obstacles[i];
+            int cx0 = col(o.getX() - o.getWidth() / 2), cx1 = col(o.getX() + o.getWidth() / 2);
+            int cy0 = row(o.getY() - o.getHeight() / 2), cy1 = row(o.getY() + o.getHeight() / 2);
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int chunk = chunks.getOrAdd(cx >> CHUNK_BITS, cy >> CHUNK_BITS);
+                    if (cellStart.length < (chunk + 1) * CHUNK_CELLS + 1) {
+                        cellStart = Arrays.copyOf(cellStart, Math.max((chunk + 1) * CHUNK_CELLS, 2 * (cellStart.length - 1)) + 1);
+                    }
+                    cellStart[cell(chunk, cx, cy) + 1]++;
+                }
+            }
+        }
+        int cells = chunks.size() * CHUNK_CELLS;
+        occupied = new long[chunks.size()];
+        for (int c = 0; c < cells; c++) {
+            if (cellStart[c + 1] > 0) {
+                occupied[c >>> 6] |= 1L << c;
+            }
+            cellStart[c + 1] += cellStart[c];
+        }
+        entries = new int[cellStart[cells]];
+        int[] fill = Arrays.copyOf(cellStart, cells);
+        for (int i = 0; i < n; i++) {
+            Obstacle o = obstacles[i];
+            int cx0 = col(o.getX() - o.getWidth() / 2), cx1 = col(o.getX() + o.getWidth() / 2);
+            int cy0 = row(o.getY() - o.getHeight() / 2), cy1 = row(o.getY() + o.getHeight() / 2);
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    entries[fill[cell(chunks.get(cx >> CHUNK_BITS, cy >> CHUNK_BITS), cx, cy)]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the first obstacle, in list order, colliding with a rectangle. This is the
+     * obstacle a linear scan with Obstacle.isColliding would stop at.
+     *
+     * @param x      the x-coordinate of the rectangle's center
+     * @param y      the y-coordinate of the rectangle's center
+     * @param width  the width of the rectangle
+     * @param height the height of the rectangle
+     * @return the colliding obstacle, or null if there is none
+     */
+    public Obstacle findFirstColliding(double x, double y, double width, double height) {
+        if (obstacles.length == 0) {
+            return null;
+        }
+        int cx0 = col(x - width / 2), cx1 = col(x + width / 2);
+        int cy0 = row(y - height / 2), cy1 = row(y + height / 2);
+        int best = Integer.MAX_VALUE;
+        for (int ky = cy0 >> CHUNK_BITS; ky <= cy1 >> CHUNK_BITS; ky++) {
+            for (int kx = cx0 >> CHUNK_BITS; kx <= cx1 >> CHUNK_BITS; kx++) {
+                int chunk = chunks.get(kx, ky);
+                if (chunk < 0) {
+                    continue;  // no obstacle anywhere in this chunk
+                }
+                int rowStart = Math.max(cy0, ky << CHUNK_BITS), rowEnd = Math.min(cy1, (ky << CHUNK_BITS) + CHUNK_MASK);
+                int colStart = Math.max(cx0, kx << CHUNK_BITS), colEnd = Math.min(cx1, (kx << CHUNK_BITS) + CHUNK_MASK);
+                for (int cy = rowStart; cy <= rowEnd; cy++) {
+                    for (int cx = colStart; cx <= colEnd; cx++) {
+                        int c = cell(chunk, cx, cy);
+                        if ((occupied[chunk] & (1L << c)) == 0) {
+                            continue;
+                        }
+                        for (int k = cellStart[c], end = cellStart[c + 1]; k < end; k++) {
+                            int i = entries[k];
+                            if (i >= best) {
+                                break;  // entries are ascending, later ones cannot be first
+                            }
+                            if (obstacles[i].isColliding(x, y, width, height)) {
+                                best = i;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best == Integer.MAX_VALUE ? null : obstacles[best];
+    }
+
+    /**
+     * Returns the number of chunks holding an obstacle.
+     *
+     * @return the chunk count
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Returns the number of obstacles in the grid.
+     *
+     * @return the number of obstacles
+     */
+    public int size() {
+        return obstacles.length;
+    }
+
+    /**
+     * Calculates the column of an x-coordinate, clamping positions outside the arena to the edge cells.
+     */
+    private int col(double x) {
+        int cx = (int) Math.floor(x / cellSize);
+        return cx < 0 ? 0 : (cx >= cols ? cols - 1 : cx);
+    }
+
+    private int row(double y) {
+        int cy = (int) Math.floor(y / cellSize);
+        return cy < 0 ? 0 : (cy >= rows ? rows - 1 : cy);
+    }
+
+    /**
+     * Calculates the index of a cell of a chunk, counting the cells of all chunks in turn.
+     */
+    private static int cell(int chunk, int cx, int cy) {
+        return (chunk << (2 * CHUNK_BITS)) + ((cy & CHUNK_MASK) << CHUNK_BITS) + (cx & CHUNK_MASK);
+    }
+}
@@ -5,6 +5,10 @@ package consoleVersion1;
  * @author Zichen Liao
  */
 public class Predator extends Robot {
+    /** Distance within which a predator detects prey. */
+    public static final double DETECTION_RANGE = 4;
+    /** Ticks a predator waits between two prey detections. */
+    static final int DETECTION_COOLDOWN = 2;
     private int preyDetectionCooldown = 0;
 
     /**
@@ -19,87 +23,76 @@ public class Predator extends Robot {
         this.speed = 0.5; // Predator speed is halved
     }
 
-    @Override
-    public void tryToMove(RobotArena arena) {
-        double newX = x + speed * Math.cos(Math.toRadians(angle));
-        double newY = y + speed * Math.sin(Math.toRadians(angle));
-
-        // Define a smaller boundary for collision detection
-        double boundaryOffset = 0.2;
+    /**
+     * Constructor for a predator with an ID allocated by the caller.
+     *
+     * @param id    the robot ID
+     * @param bx    the x-coordinate of the predator
+     * @param by    the y-coordinate of the predator
+     * @param angle the initial angle of the predator
+     */
+    Predator(int id, double bx, double by, double angle) {
+        super(id, bx, by, angle);
+        this.speed = 0.5;
+    }
 
-        // Check for collision with arena boundaries
-        boolean hitBoundary = false;
-        if (newX - width / 2 < boundaryOffset || newX + width / 2 >= arena.getXSize() - boundaryOffset) {
-            angle = 180 - angle; // Reflect angle horizontally
-            hitBoundary = true;
-        }
+    @Override
+    protected double speedIn(RobotArena arena) {
+        return arena.getSpeciesTable().getSpeed(SpeciesTable.PREDATOR);
+    }
 
-        if (newY - height / 2 < boundaryOffset || newY + height / 2 >= arena.getYSize() - boundaryOffset) {
-            angle = -angle; // Reflect angle vertically
-            hitBoundary = true;
-        }
+    @Override
+    public void tryToMove(RobotArena arena) {
+        move(arena);
 
-        // Check for collision with obstacles
-        for (Obstacle o : arena.getObstacles()) {
-            if (o.isColliding(newX, newY, width, height)) {
-                if (Math.abs(o.getX() - newX) > Math.abs(o.getY() - newY)) {
-                    angle = 180 - angle; // Reflect angle horizontally
-                } else {
-                    angle = -angle; // Reflect angle vertically
-                }
-                hitBoundary = true;
-                break;
-            }
+        Prey prey = detectPrey(arena);
+        if (prey != null) {
+            prey.markForRemoval(); // Mark prey for removal
         }
+    }
 
-        // Update position only if no collision
-        if (!hitBoundary) {
-            x = newX;
-            y = newY;
-            stuckCounter = 0;
-        } else {
-            stuckCounter++;
+    /**
+     * Looks for prey once the detection cooldown has run out, and turns towards the prey found.
+     * The prey is only claimed, not marked, so that the caller decides how claims are applied.
+     *
+     * @param arena the arena to search
+     * @return the prey claimed, or null if none was found or the predator is cooling down
+     */
+    Prey detectPrey(RobotArena arena) {
+        if (preyDetectionCooldown > 0) {
+            preyDetectionCooldown--;
+            return null;
         }
-
-        // If stuck for 3 consecutive steps, change direction randomly
-        if (stuckCounter >= 3) {
-            angle = random.nextDouble() * 360;
-            stuckCounter = 0;
+        boolean timed = arena.isProfiling();
+        long start = timed ? System.nanoTime() : 0;
+        Prey prey = null;
+        int index = arena.findPreyInRange(x, y, arena.getSpeciesTable().getDetectionRange());
+        if (index >= 0) {
+            prey = (Prey) arena.getRobots().get(index);
+            turnTowards(arena.getPreyX(index) - x, arena.getPreyY(index) - y);
         }
-
-        // Detect prey
-        if (preyDetectionCooldown == 0) {
-            for (Robot r : arena.getRobots()) {
-                if (r instanceof Prey && isWithinDetectionRange(r)) {
-                    angle = calculateAngleTowards(r);
-                    ((Prey)r).markForRemoval(); // Mark prey for removal
-                    break;
-                }
-            }
-            preyDetectionCooldown = 2;
-        } else {
-            preyDetectionCooldown--;
+        preyDetectionCooldown = DETECTION_COOLDOWN;
+        if (timed) {
+            arena.recordDetection(System.nanoTime() - start, prey != null);
         }
+        return prey;
     }
 
     /**
-     * Checks if the specified robot is within detection range.
+     * Returns the number of ticks left before the predator looks for prey again.
      *
-     * @param r the robot to check
-     * @return true if within detection range, false otherwise
+     * @return the detection cooldown
      */
-    private boolean isWithinDetectionRange(Robot r) {
-        double distance = Math.sqrt(Math.pow(r.getX() - x, 2) + Math.pow(r.getY() - y, 2));
-        return distance < 4; // Assume detection range is 4 units
+    int getDetectionCooldown() {
+        return preyDetectionCooldown;
     }
 
     /**
-     * Calculates the angle towards the specified robot.
+     * Sets the number of ticks left before the predator looks for prey again.
      *
-     * @param r the robot to calculate the angle towards
-     * @return the angle in degrees
+     * @param cooldown the detection cooldown
      */
-    private double calculateAngleTowards(Robot r) {
-        return Math.toDegrees(Math.atan2(r.getY() - y, r.getX() - x));
+    void setDetectionCooldown(int cooldown) {
+        preyDetectionCooldown = cooldown;
     }
 }
\ No newline at end of file
@@ -7,7 +7,7 @@ package consoleVersion1;
 public class Prey extends Robot {
     private int survivalCounter = 0;
     private boolean markedForRemoval = false;
-    private static final int SPLIT_THRESHOLD = 50;
+    static final int SPLIT_THRESHOLD = 50;
 
     /**
      * Constructor to initialize the prey with its position and angle.
@@ -21,53 +21,27 @@ public class Prey extends Robot {
         this.speed = 0.4; 
     }
 
-    @Override
-    public void tryToMove(RobotArena arena) {
-        double newX = x + speed * Math.cos(Math.toRadians(angle));
-        double newY = y + speed * Math.sin(Math.toRadians(angle));
-
-        // Define a smaller boundary for collision detection
-        double boundaryOffset = 0.2;
-
-        // Check for collision with arena boundaries
-        boolean hitBoundary = false;
-        if (newX - width / 2 < boundaryOffset || newX + width / 2 >= arena.getXSize() - boundaryOffset) {
-            angle = 180 - angle; // Reflect angle horizontally
-            hitBoundary = true;
-        }
-
-        if (newY - height / 2 < boundaryOffset || newY + height / 2 >= arena.getYSize() - boundaryOffset) {
-            angle = -angle; // Reflect angle vertically
-            hitBoundary = true;
-        }
-
-        // Check for collision with obstacles
-        for (Obstacle o : arena.getObstacles()) {
-            if (o.isColliding(newX, newY, width, height)) {
-                if (Math.abs(o.getX() - newX) > Math.abs(o.getY() - newY)) {
-                    angle = 180 - angle; // Reflect angle horizontally
-                } else {
-                    angle = -angle; // Reflect angle vertically
-                }
-                hitBoundary = true;
-                break;
-            }
-        }
+    /**
+     * Constructor for a prey with an ID allocated by the caller.
+     *
+     * @param id    the robot ID
+     * @param bx    the x-coordinate of the prey
+     * @param by    the y-coordinate of the prey
+     * @param angle the initial angle of the prey
+     */
+    Prey(int id, double bx, double by, double angle) {
+        super(id, bx, by, angle);
+        this.speed = 0.4;
+    }
 
-        // Update position only if no collision
-        if (!hitBoundary) {
-            x = newX;
-            y = newY;
-            stuckCounter = 0;
-        } else {
-            stuckCounter++;
-        }
+    @Override
+    protected double speedIn(RobotArena arena) {
+        return arena.getSpeciesTable().getSpeed(SpeciesTable.PREY);
+    }
 
-        // If stuck for 3 consecutive steps, change direction randomly
-        if (stuckCounter >= 3) {
-            angle = random.nextDouble() * 360;
-            stuckCounter = 0;
-        }
+    @Override
+    public void tryToMove(RobotArena arena) {
+        move(arena);
 
         // Increment survival counter
         survivalCounter++;
@@ -79,7 +53,17 @@ public class Prey extends Robot {
      * @return true if the prey should split, false otherwise
      */
     public boolean shouldSplit() {
-        return survivalCounter >= SPLIT_THRESHOLD;
+        return shouldSplit(SPLIT_THRESHOLD);
+    }
+
+    /**
+     * Checks if the prey should split, given the survival time its arena splits prey at.
+     *
+     * @param threshold the split threshold of the arena's SpeciesTable
+     * @return true if the prey should split, false otherwise
+     */
+    boolean shouldSplit(int threshold) {
+        return survivalCounter >= threshold;
     }
 
     /**
@@ -89,6 +73,62 @@ public class Prey extends Robot {
         survivalCounter = 0;
     }
 
+    @Override
+    void respawn(double bx, double by, double angle) {
+        super.respawn(bx, by, angle);
+        survivalCounter = 0;
+        markedForRemoval = false;
+    }
+
+    /**
+     * Creates the prey born when this one splits, at the same position. Its angle and its
+     * random stream are drawn from this prey's stream, so births do not depend on the
+     * order in which other robots use their randomness.
+     *
+     * @return the new prey
+     */
+    public Prey split() {
+        return split(null);
+    }
+
+    /**
+     * Creates the prey born when this one splits, reusing a removed prey's object if given.
+     *
+     * @param recycled a prey that is no longer in any arena, or null to allocate a new one
+     * @return the new prey
+     */
+    Prey split(Prey recycled) {
+        double childAngle = nextRandom() * 360;
+        Prey child;
+        if (recycled != null) {
+            recycled.respawn(x, y, childAngle);
+            child = recycled;
+        } else {
+            child = new Prey(x, y, childAngle);
+        }
+        randomState = SimRandom.advance(randomState);
+        child.setRandomState(SimRandom.mix(randomState));
+        return child;
+    }
+
+    /**
+     * Returns the number of ticks since the prey last split.
+     *
+     * @return the survival counter
+     */
+    int getSurvivalCounter() {
+        return survivalCounter;
+    }
+
+    /**
+     * Sets the number of ticks since the prey last split.
+     *
+     * @param count the survival counter
+     */
+    void setSurvivalCounter(int count) {
+        survivalCounter = count;
+    }
+
     /**
      * Checks if the prey is marked for removal.
      *
@@ -0,0 +1,21 @@
+package consoleVersion1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * RenderEvent covers one RobotCanvas.drawRobots() call on the JavaFX thread.
+ */
+@Name("consoleVersion1.Render")
+@Label("Draw Robots")
+@Category({"Ecosystem", "Rendering"})
+@Description("Drawing one frame of robots on the canvas")
+public class RenderEvent extends jdk.jfr.Event {
+    @Label("Frame Tick")
+    public long tick;
+
+    @Label("Robots")
+    public int robots;
+}
@@ -0,0 +1,126 @@
+package consoleVersion1;
+
+import java.util.List;
+
+/**
+ * ReplayEngine re-runs a RunRecording headless, as fast as the arena can be ticked. It
+ * applies each recorded intervention at the recording tick it happened at, so the
+ * replayed arena goes through exactly the states the recorded one did. Every arena it
+ * restores from a START or LOAD ticks in the mode recorded with it.
+ *
+ * seek() jumps to any recording tick. Going forward ticks on from where the replay is.
+ * Going back restarts from the last START or LOAD at or before the target, which holds
+ * the whole arena, and ticks forward from there.
+ */
+public class ReplayEngine {
+    private final List<RunRecording.Event> events;
+    private RobotArena arena;
+    private long tick;  // recording tick the replay is at
+    private int next;   // index of the next event to apply
+    private int threads = 1;
+
+    /**
+     * Constructs a replay positioned at the start of a recording.
+     *
+     * @param recording the recording
+     */
+    public ReplayEngine(RunRecording recording) {
+        events = recording.getEvents();
+        restartFrom(0);
+    }
+
+    /**
+     * Sets the number of threads each tick is run with. Phased and double-buffered
+     * recordings run faster on more threads, with the same result, and in-order ones
+     * always run on one thread, as they were recorded.
+     *
+     * @param threads the thread count
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+        arena.setThreads(threads);
+    }
+
+    /**
+     * Returns the replayed arena. It is replaced by a new one when the replay passes a
+     * load or seeks back.
+     *
+     * @return the arena
+     */
+    public RobotArena getArena() {
+        return arena;
+    }
+
+    /**
+     * Returns the recording tick the replay is at.
+     *
+     * @return the ticks run since the recording started
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the recording tick the recording ends at.
+     *
+     * @return the last recording tick
+     */
+    public long getEndTick() {
+        return events.get(events.size() - 1).getTick();
+    }
+
+    /**
+     * Applies the interventions due at the current tick, then runs one tick.
+     */
+    public void step() {
+        applyDue();
+        arena.updateRobots();
+        tick++;
+    }
+
+    /**
+     * Moves the replay to a recording tick, with the interventions made at that tick applied.
+     *
+     * @param target the recording tick
+     * @return the arena at that tick
+     */
+    public RobotArena seek(long target) {
+        if (target < tick) {
+            int restart = 0;
+            for (int i = 0; i < events.size() && events.get(i).getTick() <= target; i++) {
+                RunRecording.Kind kind = events.get(i).getKind();
+                if (kind == RunRecording.Kind.START || kind == RunRecording.Kind.LOAD) {
+                    restart = i;
+                }
+            }
+            restartFrom(restart);
+        }
+        while (tick < target) {
+            step();
+        }
+        applyDue();
+        return arena;
+    }
+
+    /**
+     * Starts again from the arena held by an event.
+     */
+    private void restartFrom(int index) {
+        RunRecording.Event e = events.get(index);
+        arena = e.applyTo(null);
+        arena.setThreads(threads);
+        tick = e.getTick();
+        next = index + 1;
+    }
+
+    private void applyDue() {
+        while (next < events.size() && events.get(next).getTick() == tick) {
+            RobotArena result = events.get(next).applyTo(arena);
+            if (result != arena) {
+                arena = result;
+                arena.setThreads(threads);
+            }
+            next++;
+        }
+    }
+}
@@ -5,17 +5,17 @@ package consoleVersion1;
  * @author Zichen Liao
  * It provides methods to get and set the robot's position, retrieve its ID, and display its information.
  */
-import java.util.Random;
-import javafx.scene.control.Alert;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Robot {
     protected double x, y;
     protected int robotid;
-    protected static int robotCount = 0;
+    private static final AtomicInteger robotCount = new AtomicInteger();  // shared by concurrently ticking arenas
     protected double angle;
+    protected double dirX, dirY;  // unit vector along angle, only recomputed when the heading changes
     protected double speed;
     protected double width, height;
-    protected Random random;
+    protected long randomState;  // SplitMix64 stream, see SimRandom
     protected int stuckCounter = 0;
 
     /**
@@ -26,14 +26,119 @@ public abstract class Robot {
      * @param angle the angle of the robot
      */
     public Robot(double bx, double by, double angle) {
+        this(nextId(), bx, by, angle);
+    }
+
+    /**
+     * Constructs a Robot with an ID allocated by the caller, such as a loader that
+     * reserved a block of IDs with allocateIds.
+     * 
+     * @param id    the robot ID
+     * @param bx    the x-coordinate of the robot
+     * @param by    the y-coordinate of the robot
+     * @param angle the angle of the robot
+     */
+    Robot(int id, double bx, double by, double angle) {
         x = bx;
         y = by;
-        robotid = robotCount++;
-        this.angle = angle;
+        robotid = id;
+        turnTo(angle);
         this.speed = 1;
         this.width = 1.0;
         this.height = 0.5;
-        random = new Random();
+        randomState = SimRandom.mix(robotid);  // replaced by RobotArena.seedRobot for reproducible runs
+    }
+
+    /**
+     * Reinitialises a removed robot as a new one with a new ID, so its object can be reused.
+     * The random stream is left for the caller to set.
+     * 
+     * @param bx    the x-coordinate of the robot
+     * @param by    the y-coordinate of the robot
+     * @param angle the angle of the robot
+     */
+    void respawn(double bx, double by, double angle) {
+        x = bx;
+        y = by;
+        robotid = nextId();
+        turnTo(angle);
+        stuckCounter = 0;
+    }
+
+    /**
+     * Allocates the next unused robot ID.
+     * 
+     * @return the new ID
+     */
+    static int nextId() {
+        return robotCount.getAndIncrement();
+    }
+
+    /**
+     * Allocates a block of consecutive unused robot IDs.
+     * 
+     * @param count the number of IDs
+     * @return the first ID of the block
+     */
+    static int allocateIds(int count) {
+        return robotCount.getAndAdd(count);
+    }
+
+    /**
+     * Makes sure IDs allocated from now on are at least a given value, so robots restored
+     * with their saved IDs do not share them with robots created later.
+     * 
+     * @param next the lowest ID that may still be allocated
+     */
+    static void reserveIds(int next) {
+        robotCount.accumulateAndGet(next, Math::max);
+    }
+
+    /**
+     * Puts back the state of a saved robot that its constructor does not take. The direction
+     * vector is restored as saved rather than recomputed from the angle, because reflections
+     * leave it slightly different from cos and sin of the angle.
+     * 
+     * @param id     the saved ID
+     * @param dx     the x-component of the direction vector
+     * @param dy     the y-component of the direction vector
+     * @param state  the random stream state
+     * @param stuck  the stuck counter
+     */
+    void restore(int id, double dx, double dy, long state, int stuck) {
+        robotid = id;
+        dirX = dx;
+        dirY = dy;
+        randomState = state;
+        stuckCounter = stuck;
+    }
+
+    /**
+     * Returns the state of the robot's random stream.
+     * 
+     * @return the random state
+     */
+    public long getRandomState() {
+        return randomState;
+    }
+
+    /**
+     * Sets the state of the robot's random stream.
+     * 
+     * @param state the new random state
+     */
+    public void setRandomState(long state) {
+        randomState = state;
+    }
+
+    /**
+     * Draws the next value from the robot's own random stream.
+     * 
+     * @return a random double in [0, 1)
+     */
+    protected double nextRandom() {
+        randomState = SimRandom.advance(randomState);
+        return SimRandom.toDouble(randomState);
     }
 
     /**
@@ -79,6 +184,33 @@ public abstract class Robot {
         return "Robot " + robotid + " at " + Math.round(x) + ", " + Math.round(y);
     }
 
+    /**
+     * Returns the number of consecutive blocked moves.
+     * 
+     * @return the stuck counter
+     */
+    int getStuckCounter() {
+        return stuckCounter;
+    }
+
+    /**
+     * Returns the x-component of the direction vector.
+     * 
+     * @return the x-component
+     */
+    double getDirX() {
+        return dirX;
+    }
+
+    /**
+     * Returns the y-component of the direction vector.
+     * 
+     * @return the y-component
+     */
+    double getDirY() {
+        return dirY;
+    }
+
     /**
      * Returns the angle of the robot.
      * 
@@ -88,6 +220,34 @@ public abstract class Robot {
         return angle;
     }
 
+    /**
+     * Sets the heading and recomputes the direction vector.
+     * 
+     * @param newAngle the new angle in degrees
+     */
+    protected void turnTo(double newAngle) {
+        angle = newAngle;
+        dirX = FastTrig.cosDeg(newAngle);
+        dirY = FastTrig.sinDeg(newAngle);
+    }
+
+    /**
+     * Turns the robot to face along an offset, without evaluating sine and cosine.
+     * 
+     * @param dx the x-offset to face along
+     * @param dy the y-offset to face along
+     */
+    protected void turnTowards(double dx, double dy) {
+        double length = Math.sqrt(dx * dx + dy * dy);
+        if (length == 0) {
+            turnTo(Math.toDegrees(Math.atan2(dy, dx)));
+            return;
+        }
+        angle = Math.toDegrees(Math.atan2(dy, dx));
+        dirX = dx / length;
+        dirY = dy / length;
+    }
+
     /**
      * Checks if the robot is at the specified coordinates.
      * 
@@ -99,6 +259,74 @@ public abstract class Robot {
         return x == sx && y == sy;
     }
 
+    /**
+     * Moves the robot one step along its angle, bouncing off the arena boundaries and
+     * obstacles, and picks a random new angle after being stuck for 3 steps.
+     * 
+     * @param arena the arena in which the robot is moving
+     */
+    protected void move(RobotArena arena) {
+        double step = speedIn(arena);
+        double newX = x + step * dirX;
+        double newY = y + step * dirY;
+
+        // Define a smaller boundary for collision detection
+        double boundaryOffset = 0.2;
+
+        // Check for collision with arena boundaries
+        boolean hitBoundary = false;
+        if (newX - width / 2 < boundaryOffset || newX + width / 2 >= arena.getXSize() - boundaryOffset) {
+            angle = 180 - angle; // Reflect angle horizontally
+            dirX = -dirX;
+            hitBoundary = true;
+        }
+
+        if (newY - height / 2 < boundaryOffset || newY + height / 2 >= arena.getYSize() - boundaryOffset) {
+            angle = -angle; // Reflect angle vertically
+            dirY = -dirY;
+            hitBoundary = true;
+        }
+
+        // Check for collision with obstacles
+        Obstacle o = arena.findCollidingObstacle(newX, newY, width, height);
+        if (o != null) {
+            if (Math.abs(o.getX() - newX) > Math.abs(o.getY() - newY)) {
+                angle = 180 - angle; // Reflect angle horizontally
+                dirX = -dirX;
+            } else {
+                angle = -angle; // Reflect angle vertically
+                dirY = -dirY;
+            }
+            hitBoundary = true;
+        }
+
+        // Update position only if no collision
+        if (!hitBoundary) {
+            x = newX;
+            y = newY;
+            stuckCounter = 0;
+        } else {
+            stuckCounter++;
+        }
+
+        // If stuck for 3 consecutive steps, change direction randomly
+        if (stuckCounter >= 3) {
+            turnTo(nextRandom() * 360);
+            stuckCounter = 0;
+        }
+    }
+
+    /**
+     * Returns the distance the robot moves per step in an arena. Species whose speed the
+     * arena's SpeciesTable sets override this.
+     * 
+     * @param arena the arena in which the robot is moving
+     * @return the speed
+     */
+    protected double speedIn(RobotArena arena) {
+        return speed;
+    }
+
     /**
      * Abstract method for moving the robot in the specified arena.
      * 
@@ -107,13 +335,23 @@ public abstract class Robot {
     public abstract void tryToMove(RobotArena arena);
 
     /**
-     * Displays information about the robot in an alert dialog.
+     * Returns a description of the robot's position and angle, suitable for an information dialog.
+     * 
+     * @return the robot information text
+     */
+    public String getInfo() {
+        return formatInfo(x, y, angle);
+    }
+
+    /**
+     * Formats a position and angle the same way as getInfo(), for robots read from a WorldFrame.
+     * 
+     * @param x     the x-coordinate
+     * @param y     the y-coordinate
+     * @param angle the angle in degrees
+     * @return the robot information text
      */
-    public void showInfo() {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Robot Information");
-        alert.setHeaderText("Robot " + robotid);
-        alert.setContentText("Position: (" + Math.round(x) + ", " + Math.round(y) + ")\nAngle: " + angle);
-        alert.showAndWait();
+    public static String formatInfo(double x, double y, double angle) {
+        return "Position: (" + Math.round(x) + ", " + Math.round(y) + ")\nAngle: " + angle;
     }
 }
\ No newline at end of file
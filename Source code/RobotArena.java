@@ -1,10 +1,12 @@
 package consoleVersion1;
 
 import java.util.ArrayList;
-import java.util.Random;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import jdk.jfr.FlightRecorder;
 
 /**
  * RobotArena class represents a Robot Arena where robots can move and interact with obstacles.
@@ -14,20 +16,120 @@ public class RobotArena {
     private int xmax, ymax;
     private ArrayList<Robot> manyRobots;
     private ArrayList<Obstacle> obstacles; // List of obstacles in the arena
-    private Random random;
+    private SimRandom random;  // seeds new robots
+    private long seed;
+    private SpeciesTable species = new SpeciesTable();  // speeds and rules the robots follow
+    private SpatialGrid preyGrid;  // prey index, only valid while updateRobots runs
+    private boolean spatialIndexEnabled = true;
+    private boolean preyGridValid = false;
+    private ForkJoinPool pool;            // null when ticking on the calling thread
+    private Prey[] claims = new Prey[0];  // prey claimed by each robot index during a phased tick
+    private boolean[] removing = new boolean[0];                // robots to remove at the end of the tick
+    private final ArrayList<Robot> births = new ArrayList<>();  // preys born this tick, reused every tick
+    private final ArrayList<Prey> preyPool = new ArrayList<>(); // removed preys, recycled by births
+    private final TickMetrics metrics = new TickMetrics();
+    private int tickBirths, tickDeaths;   // counted by compactRobots for the metrics
+    private int preyCount;                // kept up to date by compactRobots between recounts
+    private boolean countsStale = true;   // robots added or removed outside a tick since the last count
+    private TerminationMonitor termination;  // null when not watching for the run to resolve
+    private boolean profiling = false;    // time the phases of this tick for the JFR events
+    private long splitNanos, compactNanos;
+    private int splitRecycled;
+    private final LongAdder detectionNanos = new LongAdder();  // added to by worker threads
+    private final LongAdder detectionSearches = new LongAdder();
+    private final LongAdder detectionClaims = new LongAdder();
+    private static final int PARALLEL_GRAIN = 1024;  // robots handled by one task without splitting further
+    private long tick = 0;                // number of updateRobots calls so far
+    private boolean doubleBuffered = false;
+    private boolean phased = false;       // phased ticks with claims instead of in-order ones
+    static final int TICK_DOUBLE_BUFFERED = 1;  // getTickMode flags, as saved in recordings
+    static final int TICK_PHASED = 2;
+    private volatile WorldFrame frontFrame = new WorldFrame();  // last published frame
+    private WorldFrame backFrame = new WorldFrame();            // frame written by the next tick
+    private boolean frameStale = true;    // robots changed since frontFrame was captured
+    private int obstacleVersion = 0;      // changes whenever the obstacle list changes
+    private final ObstacleGrid obstacleGrid = new ObstacleGrid();
+    private int bakedObstacleVersion = -1;  // obstacleVersion the grid was last baked from
 
     /**
-     * Constructor with specified arena size.
+     * Constructor with specified arena size and a seed chosen from the clock.
      * 
      * @param xp the width of the arena
      * @param yp the height of the arena
      */
     public RobotArena(int xp, int yp) {
+        this(xp, yp, SimRandom.freshSeed());
+    }
+
+    /**
+     * Constructor with specified arena size and seed. The same seed and the same calls
+     * always produce the same robots, obstacles and trajectories, as long as the tick mode
+     * is the same; the thread count does not change them.
+     * 
+     * @param xp the width of the arena
+     * @param yp the height of the arena
+     * @param seed the seed of the arena's random stream
+     */
+    public RobotArena(int xp, int yp, long seed) {
         xmax = xp;
         ymax = yp;
         manyRobots = new ArrayList<>();
         obstacles = new ArrayList<>();
-        random = new Random();
+        random = new SimRandom(seed);
+        this.seed = seed;
+        preyGrid = new SpatialGrid(species.getDetectionRange());
+    }
+
+    /**
+     * Get the seed the arena's random stream was last started from.
+     * 
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Restart the arena's random stream from a seed. Robots already in the arena keep
+     * their own streams.
+     * 
+     * @param newSeed the seed
+     */
+    public void setSeed(long newSeed) {
+        seed = newSeed;
+        random.setState(newSeed);
+    }
+
+    /**
+     * Get the current state of the arena's random stream, which seeds the next robots and
+     * obstacles.
+     * 
+     * @return the random state
+     */
+    long getRandomState() {
+        return random.getState();
+    }
+
+    /**
+     * Continue a saved run: set the arena's random stream state and tick count as they
+     * were when it was saved.
+     * 
+     * @param randomState the saved random state
+     * @param savedTick   the saved tick count
+     */
+    void resume(long randomState, long savedTick) {
+        random.setState(randomState);
+        tick = savedTick;
+        frameStale = true;
+    }
+
+    /**
+     * Give a robot its own random stream, split off the arena's stream.
+     * 
+     * @param r the robot to seed
+     */
+    public void seedRobot(Robot r) {
+        r.setRandomState(random.nextLong());
     }
 
     /**
@@ -64,6 +166,228 @@ public class RobotArena {
         return null;
     }
 
+    /**
+     * Set the species constants the robots in this arena follow: their speeds, how far
+     * predators detect prey and how long prey survive before splitting. Arenas ticked side
+     * by side can each have their own table. The table is not saved in snapshots, so a
+     * restored arena starts with the defaults. Only call this between ticks.
+     * 
+     * @param table the species table
+     */
+    public void setSpeciesTable(SpeciesTable table) {
+        species = table;
+        preyGrid = new SpatialGrid(table.getDetectionRange());
+        preyGridValid = false;
+    }
+
+    /**
+     * Get the species constants the robots in this arena follow.
+     * 
+     * @return the species table
+     */
+    public SpeciesTable getSpeciesTable() {
+        return species;
+    }
+
+    /**
+     * Enable or disable the spatial index used for prey detection. When disabled,
+     * predators scan the whole robot list.
+     * 
+     * @param enabled true to use the spatial index
+     */
+    public void setSpatialIndexEnabled(boolean enabled) {
+        spatialIndexEnabled = enabled;
+    }
+
+    /**
+     * Set the number of threads phased and double-buffered ticks run on. With more than
+     * one thread their phases run on a ForkJoinPool. The thread count never changes the
+     * result, and in-order ticks always run on the calling thread.
+     * 
+     * @param threads the number of worker threads, 1 to tick on the calling thread
+     */
+    public void setThreads(int threads) {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+    }
+
+    /**
+     * Set the tick mode and thread count to those of another arena, so this one runs on
+     * as the other would.
+     * 
+     * @param other the arena to copy the settings of
+     */
+    void copyTickMode(RobotArena other) {
+        setThreads(other.getThreads());
+        setPhased(other.isPhased());
+        setDoubleBuffered(other.isDoubleBuffered());
+    }
+
+    /**
+     * Get the tick mode as a set of TICK_ flags, 0 for in-order ticks, for saving with a run.
+     * 
+     * @return the tick mode flags
+     */
+    int getTickMode() {
+        return (doubleBuffered ? TICK_DOUBLE_BUFFERED : 0) | (phased ? TICK_PHASED : 0);
+    }
+
+    /**
+     * Set the tick mode from a set of TICK_ flags saved by getTickMode.
+     * 
+     * @param mode the tick mode flags
+     */
+    void setTickMode(int mode) {
+        setDoubleBuffered((mode & TICK_DOUBLE_BUFFERED) != 0);
+        setPhased((mode & TICK_PHASED) != 0);
+    }
+
+    /**
+     * Get the number of threads phased and double-buffered ticks run on.
+     * 
+     * @return the number of worker threads
+     */
+    public int getThreads() {
+        return pool == null ? 1 : pool.getParallelism();
+    }
+
+    /**
+     * Enable or disable phased ticks (see updateRobotsPhased). Every robot moves before
+     * any predator looks for prey, so prey are caught differently from in-order ticks,
+     * whatever the number of threads. Double-buffered ticks take precedence when both
+     * are enabled.
+     * 
+     * @param enabled true to use phased ticks
+     */
+    public void setPhased(boolean enabled) {
+        phased = enabled;
+    }
+
+    /**
+     * Check whether ticks are phased.
+     * 
+     * @return true if phased ticks are enabled
+     */
+    public boolean isPhased() {
+        return phased;
+    }
+
+    /**
+     * Enable or disable double-buffered ticks. In this mode every robot reads the other
+     * robots' positions from the previous tick's frame and writes only its own state, so
+     * the result does not depend on the order robots are updated in, and each tick
+     * publishes a new frame for other threads to read (see getFrame).
+     * 
+     * @param enabled true to use double-buffered ticks
+     */
+    public void setDoubleBuffered(boolean enabled) {
+        doubleBuffered = enabled;
+        frameStale = true;
+    }
+
+    /**
+     * Check whether ticks are double-buffered.
+     * 
+     * @return true if double-buffered ticks are enabled
+     */
+    public boolean isDoubleBuffered() {
+        return doubleBuffered;
+    }
+
+    /**
+     * Get the frame published by the last double-buffered tick. It can be read from any
+     * thread, following the checks described in WorldFrame.
+     * 
+     * @return the latest frame
+     */
+    public WorldFrame getFrame() {
+        return frontFrame;
+    }
+
+    /**
+     * Publish a new frame if the robots or obstacles changed since the last one. Call this
+     * on the thread that changes the arena, after changing it outside of a tick.
+     */
+    public void refreshFrame() {
+        if (frameStale) {
+            publishFrame();
+        }
+    }
+
+    /**
+     * Capture the current state into the back frame and make it the front frame. The old
+     * front frame becomes the back frame, to be rewritten by the next publish.
+     */
+    private void publishFrame() {
+        backFrame.capture(manyRobots, obstacles, obstacleVersion, tick);
+        WorldFrame published = backFrame;
+        backFrame = frontFrame;
+        frontFrame = published;
+        frameStale = false;
+    }
+
+    /**
+     * Get the number of ticks run so far.
+     * 
+     * @return the tick count
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Find the first prey, in robot list order, strictly within range of a position.
+     * 
+     * @param x the x-coordinate to search from
+     * @param y the y-coordinate to search from
+     * @param range the detection range
+     * @return the robot index of the prey found, or -1 if there is none in range
+     */
+    public int findPreyInRange(double x, double y, double range) {
+        metrics.countDetectionSearch();
+        if (preyGridValid) {
+            return preyGrid.findFirstWithin(x, y, range);
+        }
+        double rangeSq = range * range;
+        for (int i = 0; i < manyRobots.size(); i++) {
+            Robot r = manyRobots.get(i);
+            if (r instanceof Prey) {
+                double dx = r.getX() - x;
+                double dy = r.getY() - y;
+                if (dx * dx + dy * dy < rangeSq) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the x-coordinate of a prey as seen by findPreyInRange, which is the previous
+     * tick's position during a double-buffered tick.
+     * 
+     * @param index the robot index of the prey
+     * @return the x-coordinate
+     */
+    public double getPreyX(int index) {
+        return preyGridValid ? preyGrid.getX(index) : manyRobots.get(index).getX();
+    }
+
+    /**
+     * Get the y-coordinate of a prey as seen by findPreyInRange.
+     * 
+     * @param index the robot index of the prey
+     * @return the y-coordinate
+     */
+    public double getPreyY(int index) {
+        return preyGridValid ? preyGrid.getY(index) : manyRobots.get(index).getY();
+    }
+
     /**
      * Add a new robot to a random valid position in the arena.
      * 
@@ -71,26 +395,49 @@ public class RobotArena {
      */
     public void addRobot(Robot r) {
         manyRobots.add(r);
+        frameStale = true;
+        countsChanged();
+    }
+
+    /**
+     * Remove the robot at an index of the robot list.
+     * 
+     * @param index the robot index
+     */
+    public void removeRobot(int index) {
+        manyRobots.remove(index);
+        frameStale = true;
+        countsChanged();
+    }
+
+    /**
+     * Move a single robot one step, outside of a tick.
+     * 
+     * @param index the robot index
+     */
+    public void moveRobot(int index) {
+        manyRobots.get(index).tryToMove(this);
+        frameStale = true;
     }
 
     /**
      * Remove all robots in the arena.
      */
     public void RemoveAllRobot() {
-        // Create a list of robots to remove
-        ArrayList<Robot> toRemove = new ArrayList<>();
+        int n = manyRobots.size();
+        ensureRemoving(n);
         
         // Iterate through all robots
-        for (Robot r : manyRobots) {
+        for (int i = 0; i < n; i++) {
+            Robot r = manyRobots.get(i);
             r.tryToMove(this);
-            // If the robot is marked for removal, add to the removal list
-            if (r instanceof Prey && ((Prey)r).isMarkedForRemoval()) {
-                toRemove.add(r);
-            }
+            // If the robot is marked for removal, flag it for the compaction below
+            removing[i] = r instanceof Prey && ((Prey)r).isMarkedForRemoval();
         }
         
         // Remove all marked robots
-        manyRobots.removeAll(toRemove);
+        compactRobots(n, false);
+        frameStale = true;
     }
 
     /**
@@ -132,7 +479,11 @@ public class RobotArena {
      */
     public void clearArena() {
         manyRobots.clear();
+        preyPool.clear();
         obstacles.clear();
+        obstacleVersion++;
+        frameStale = true;
+        countsChanged();
     }
 
     /**
@@ -140,6 +491,9 @@ public class RobotArena {
      */
     public void clearRobots() {
         manyRobots.clear();
+        preyPool.clear();
+        frameStale = true;
+        countsChanged();
     }
 
     /**
@@ -149,15 +503,42 @@ public class RobotArena {
      */
     public void addObstacle(Obstacle o) {
         obstacles.add(o);
+        obstacleVersion++;
+        frameStale = true;
+    }
+
+    /**
+     * Add predators and preys at random positions with random angles.
+     * 
+     * @param predatorCount the number of predators to add
+     * @param preyCount the number of preys to add
+     */
+    public void addRandomRobots(int predatorCount, int preyCount) {
+        addRandomRobots(predatorCount, preyCount, 0, 0, xmax, ymax);
     }
 
     /**
-     * Get all robots as an observable list.
+     * Add predators and preys at random positions within a region, with random angles.
+     * Calling it with the whole arena as the region is the same as addRandomRobots.
      * 
-     * @return an observable list of robots
+     * @param predatorCount the number of predators to add
+     * @param preyCount the number of preys to add
+     * @param x0 the x-coordinate of the region's left edge
+     * @param y0 the y-coordinate of the region's top edge
+     * @param width the width of the region
+     * @param height the height of the region
      */
-    public ObservableList<Robot> getObservableRobots() {
-        return FXCollections.observableArrayList(manyRobots);
+    public void addRandomRobots(int predatorCount, int preyCount, int x0, int y0, int width, int height) {
+        for (int i = 0; i < predatorCount; i++) {
+            Robot r = new Predator(x0 + random.nextInt(width), y0 + random.nextInt(height), random.nextDouble() * 360);
+            seedRobot(r);
+            addRobot(r);
+        }
+        for (int i = 0; i < preyCount; i++) {
+            Robot r = new Prey(x0 + random.nextInt(width), y0 + random.nextInt(height), random.nextDouble() * 360);
+            seedRobot(r);
+            addRobot(r);
+        }
     }
 
     /**
@@ -168,16 +549,35 @@ public class RobotArena {
      * @param obstacleHeight the height of each obstacle
      */
     public void addRandomObstacles(int count, double obstacleWidth, double obstacleHeight) {
+        addRandomObstacles(count, obstacleWidth, obstacleHeight, 0, 0, xmax, ymax);
+    }
+
+    /**
+     * Add random obstacles within a region of the arena. Calling it with the whole arena as
+     * the region is the same as addRandomObstacles.
+     * 
+     * @param count the number of obstacles to add
+     * @param obstacleWidth the width of each obstacle
+     * @param obstacleHeight the height of each obstacle
+     * @param x0 the x-coordinate of the region's left edge
+     * @param y0 the y-coordinate of the region's top edge
+     * @param width the width of the region
+     * @param height the height of the region
+     */
+    public void addRandomObstacles(int count, double obstacleWidth, double obstacleHeight,
+            int x0, int y0, int width, int height) {
         for (int i = 0; i < count; i++) {
             double x, y;
             do {
-                x = random.nextInt(xmax);
-                y = random.nextInt(ymax);
+                x = x0 + random.nextInt(width);
+                y = y0 + random.nextInt(height);
             } while (getRobotAt(x, y) != null || isBorder(x, y));
 
             // Create a new obstacle and add to the list
             obstacles.add(new Obstacle(x, y, obstacleWidth, obstacleHeight));
         }
+        obstacleVersion++;
+        frameStale = true;
     }
 
     /**
@@ -200,39 +600,535 @@ public class RobotArena {
             Robot r = iterator.next();
             r.tryToMove(this);
         }
+        frameStale = true;
     }
 
     /**
      * Update the state of all robots in the arena.
      */
     public void updateRobots() {
-        ArrayList<Robot> toAdd = new ArrayList<>();
-        ArrayList<Robot> toRemove = new ArrayList<>();
+        TickEvent event = startProfiling();
+        long start = System.nanoTime();
+        int agents = manyRobots.size();
+        tickBirths = 0;
+        tickDeaths = 0;
+        if (countsStale) {
+            countSpecies();
+        }
+        bakeObstacles();
+        if (doubleBuffered) {
+            updateRobotsBuffered();
+        } else if (phased) {
+            updateRobotsPhased();
+        } else {
+            updateRobotsInOrder();
+        }
+        tick++;
+        if (termination != null) {
+            termination.tick(tick, manyRobots.size() - preyCount, preyCount);
+        }
+        if (doubleBuffered) {
+            publishFrame();
+        } else {
+            frameStale = true;
+        }
+        long elapsed = System.nanoTime() - start;
+        metrics.recordTick(elapsed, agents, tickBirths, tickDeaths);
+        if (profiling) {
+            commitProfile(event, agents, elapsed);
+        }
+    }
+
+    /**
+     * Switch phase timing on for this tick if any of the tick's JFR events is enabled,
+     * and clear the phase totals. Nothing is allocated while no recording wants them.
+     * 
+     * @return the begun tick event, or null if not profiling
+     */
+    private TickEvent startProfiling() {
+        profiling = FlightRecorder.isInitialized() && EventProbes.anyEnabled();
+        if (!profiling) {
+            return null;
+        }
+        splitNanos = 0;
+        compactNanos = 0;
+        splitRecycled = 0;
+        detectionNanos.reset();
+        detectionSearches.reset();
+        detectionClaims.reset();
+        TickEvent event = new TickEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commit the JFR events of a profiled tick.
+     * 
+     * @param event the tick event
+     * @param agents the number of robots at the start of the tick
+     * @param elapsed the duration of the tick in nanoseconds
+     */
+    private void commitProfile(TickEvent event, int agents, long elapsed) {
+        long detectTime = detectionNanos.sum();
+        if (event.shouldCommit()) {
+            event.tick = tick - 1;
+            event.mode = doubleBuffered ? "double-buffered" : (phased ? "phased" : "in-order");
+            event.threads = getThreads();
+            event.agents = agents;
+            event.births = tickBirths;
+            event.deaths = tickDeaths;
+            event.detectionTime = detectTime;
+            event.splitTime = splitNanos;
+            event.compactionTime = compactNanos;
+            // Parallel detection time is summed over threads, so it can exceed the wall time left
+            event.moveTime = Math.max(0, elapsed - detectTime - splitNanos - compactNanos);
+            event.commit();
+        }
+        DetectionEvent detection = new DetectionEvent();
+        if (detection.shouldCommit()) {
+            detection.tick = tick - 1;
+            detection.searches = (int) detectionSearches.sum();
+            detection.claims = (int) detectionClaims.sum();
+            detection.searchTime = detectTime;
+            detection.commit();
+        }
+        SplitEvent split = new SplitEvent();
+        if (split.shouldCommit()) {
+            split.tick = tick - 1;
+            split.births = tickBirths;
+            split.recycled = splitRecycled;
+            split.splitTime = splitNanos;
+            split.commit();
+        }
+        profiling = false;
+    }
+
+    /**
+     * Check whether the current tick times its phases, so predators know to time their searches.
+     * 
+     * @return true while a profiled tick runs
+     */
+    boolean isProfiling() {
+        return profiling;
+    }
+
+    /**
+     * Add one prey search to the tick's profile. Safe to call from worker threads.
+     * 
+     * @param nanos the time the search took
+     * @param claimed true if the search found a prey
+     */
+    void recordDetection(long nanos, boolean claimed) {
+        detectionNanos.add(nanos);
+        detectionSearches.increment();
+        if (claimed) {
+            detectionClaims.increment();
+        }
+    }
+
+    /**
+     * Note that robots were added or removed outside a tick, which breaks the run of counts
+     * the termination monitor has seen.
+     */
+    private void countsChanged() {
+        countsStale = true;
+        if (termination != null) {
+            termination.reset();
+        }
+    }
+
+    /**
+     * Count the prey from scratch, after robots were added or removed outside a tick.
+     */
+    private void countSpecies() {
+        int n = 0;
+        for (Robot r : manyRobots) {
+            if (r instanceof Prey) {
+                n++;
+            }
+        }
+        preyCount = n;
+        countsStale = false;
+    }
+
+    /**
+     * Get the number of prey. It is kept up to date tick by tick, and only recounted after
+     * robots were added or removed outside a tick.
+     * 
+     * @return the prey count
+     */
+    public int getPreyCount() {
+        if (countsStale) {
+            countSpecies();
+        }
+        return preyCount;
+    }
+
+    /**
+     * Get the number of predators.
+     * 
+     * @return the predator count
+     */
+    public int getPredatorCount() {
+        return manyRobots.size() - getPreyCount();
+    }
+
+    /**
+     * Watch for the run to resolve, feeding the monitor the species counts after every tick.
+     * The monitor starts over whenever robots are added or removed outside a tick.
+     * 
+     * @param monitor the monitor, or null to stop watching
+     */
+    public void setTerminationMonitor(TerminationMonitor monitor) {
+        termination = monitor;
+        if (monitor != null) {
+            monitor.reset();
+        }
+    }
+
+    /**
+     * Get the termination monitor.
+     * 
+     * @return the monitor, or null if none is set
+     */
+    public TerminationMonitor getTerminationMonitor() {
+        return termination;
+    }
+
+    /**
+     * Get the reason the run has resolved, as found by the termination monitor.
+     * 
+     * @return the reason, or null if the run has not resolved or no monitor is set
+     */
+    public TerminationMonitor.Reason getTermination() {
+        return termination == null ? null : termination.getReason();
+    }
+
+    /**
+     * Get the metrics recorded by updateRobots. Register them to watch a run over JMX.
+     * 
+     * @return the tick metrics of this arena
+     */
+    public TickMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Update robots one after another in list order, each seeing the moves of the ones before it.
+     */
+    private void updateRobotsInOrder() {
+        int n = manyRobots.size();
+        ensureRemoving(n);
+
+        indexPreys();
 
         // Iterate and update all robots
-        for (Robot robot : manyRobots) {
+        for (int i = 0; i < n; i++) {
+            Robot robot = manyRobots.get(i);
             // Handle splitting logic for Prey
             if (robot instanceof Prey) {
                 Prey prey = (Prey) robot;
                 // Check if it should split
-                if (prey.shouldSplit()) {
-                    // Create a new Prey and add to the list
-                    toAdd.add(new Prey(prey.getX(), prey.getY(), 
-                             random.nextDouble() * 360));
-                    prey.resetSurvivalCounter();
-                }
-                // Check if marked for removal
-                if (prey.isMarkedForRemoval()) {
-                    toRemove.add(prey);
+                if (prey.shouldSplit(species.getSplitThreshold())) {
+                    splitPrey(prey);
                 }
+                // Preys marked before their turn are removed at the end of the tick,
+                // preys marked after it survive until the next tick
+                removing[i] = prey.isMarkedForRemoval();
             }
             
             // Update robot position
             robot.tryToMove(this);
+            if (preyGridValid) {
+                preyGrid.update(i, robot.getX(), robot.getY());
+            }
         }
+        preyGridValid = false;
         
-        // Remove marked robots
-        manyRobots.removeAll(toRemove);
-        manyRobots.addAll(toAdd);
+        // Remove marked robots and append the newborn preys
+        compactRobots(n, false);
+    }
+
+    /**
+     * Update the state of all robots in phases, on the worker pool if there is one. Robots
+     * cannot see each other move within a phase, so the phases only read shared state:
+     * preys decide to split, every robot moves, predators claim the first prey in range of
+     * the moved positions, and finally claimed preys are removed and new preys appended.
+     * A prey claimed by several predators is eaten once and every claimant turns towards it,
+     * so the outcome depends only on list order and never on the number of threads.
+     */
+    private void updateRobotsPhased() {
+        int n = manyRobots.size();
+
+        // Splitting is decided in list order, so new IDs and angles do not depend on scheduling
+        for (int i = 0; i < n; i++) {
+            Robot robot = manyRobots.get(i);
+            if (robot instanceof Prey && ((Prey) robot).shouldSplit(species.getSplitThreshold())) {
+                splitPrey((Prey) robot);
+            }
+        }
+
+        // Each robot moves using only its own state
+        forEachIndex(n, i -> {
+            Robot r = manyRobots.get(i);
+            if (r instanceof Predator) {
+                r.move(this);
+            } else {
+                r.tryToMove(this);
+            }
+        });
+
+        // Predators claim prey against the moved positions, which no longer change
+        indexPreys();
+        if (claims.length < n) {
+            claims = new Prey[n];
+        }
+        forEachIndex(n, i -> {
+            Robot r = manyRobots.get(i);
+            claims[i] = r instanceof Predator ? ((Predator) r).detectPrey(this) : null;
+        });
+        preyGridValid = false;
+
+        for (int i = 0; i < n; i++) {
+            if (claims[i] != null) {
+                claims[i].markForRemoval();
+                claims[i] = null;
+            }
+        }
+        compactRobots(n, true);
+    }
+
+    /**
+     * Update robots against the previous tick's frame. Preys decide to split in list order,
+     * then every robot moves and predators claim prey from the frozen frame, so all robots
+     * can be updated at once on the worker pool. Claims are applied as in updateRobotsPhased.
+     */
+    private void updateRobotsBuffered() {
+        refreshFrame();
+        WorldFrame previous = frontFrame;
+        int n = manyRobots.size();
+
+        for (int i = 0; i < n; i++) {
+            Robot robot = manyRobots.get(i);
+            if (robot instanceof Prey && ((Prey) robot).shouldSplit(species.getSplitThreshold())) {
+                splitPrey((Prey) robot);
+            }
+        }
+
+        // Index preys from the frame rather than the robots, which are about to move
+        preyGrid.reset(xmax, ymax, n);
+        for (int i = 0; i < n; i++) {
+            if (previous.getSpecies(i) == SpeciesTable.PREY) {
+                preyGrid.insert(i, previous.getX(i), previous.getY(i));
+            }
+        }
+        preyGridValid = true;
+        if (claims.length < n) {
+            claims = new Prey[n];
+        }
+        forEachIndex(n, i -> {
+            Robot r = manyRobots.get(i);
+            if (r instanceof Predator) {
+                r.move(this);
+                claims[i] = ((Predator) r).detectPrey(this);
+            } else {
+                r.tryToMove(this);
+            }
+        });
+        preyGridValid = false;
+
+        for (int i = 0; i < n; i++) {
+            if (claims[i] != null) {
+                claims[i].markForRemoval();
+                claims[i] = null;
+            }
+        }
+        compactRobots(n, true);
+    }
+
+    /**
+     * Add the prey born from a splitting prey to this tick's births, recycling a removed
+     * prey if one is pooled, and restart the parent's survival counter.
+     * 
+     * @param parent the prey that splits
+     */
+    private void splitPrey(Prey parent) {
+        long start = profiling ? System.nanoTime() : 0;
+        int pooled = preyPool.size();
+        births.add(parent.split(pooled > 0 ? preyPool.remove(pooled - 1) : null));
+        parent.resetSurvivalCounter();
+        if (profiling) {
+            splitNanos += System.nanoTime() - start;
+            if (pooled > 0) {
+                splitRecycled++;
+            }
+        }
+    }
+
+    /**
+     * Make sure the removal flags cover a number of robots.
+     * 
+     * @param n the number of robots
+     */
+    private void ensureRemoving(int n) {
+        if (removing.length < n) {
+            removing = new boolean[Math.max(n, removing.length * 2)];
+        }
+    }
+
+    /**
+     * Remove robots in one pass that keeps the others in order, then append this tick's
+     * births. Removed preys go to the pool, so the caller must not keep references to them.
+     * 
+     * @param n the number of robots at the start of the tick
+     * @param removeMarked true to remove every marked prey, false to remove the robots flagged in removing
+     */
+    private void compactRobots(int n, boolean removeMarked) {
+        CompactionEvent event = null;
+        if (profiling) {
+            event = new CompactionEvent();
+            event.begin();
+        }
+        long start = profiling ? System.nanoTime() : 0;
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            Robot r = manyRobots.get(i);
+            boolean remove;
+            if (removeMarked) {
+                remove = r instanceof Prey && ((Prey) r).isMarkedForRemoval();
+            } else {
+                remove = removing[i];
+                removing[i] = false;
+            }
+            if (remove) {
+                preyPool.add((Prey) r);
+            } else {
+                manyRobots.set(kept++, r);
+            }
+        }
+        // Truncate from the end, which neither shifts elements nor allocates
+        for (int i = n - 1; i >= kept; i--) {
+            manyRobots.remove(i);
+        }
+        tickDeaths += n - kept;
+        tickBirths += births.size();
+        preyCount += births.size() - (n - kept);  // only prey are born or removed
+        for (int b = 0; b < births.size(); b++) {
+            manyRobots.add(births.get(b));
+        }
+        if (event != null && event.shouldCommit()) {
+            event.tick = tick;
+            event.agents = n;
+            event.removed = n - kept;
+            event.appended = births.size();
+            event.commit();
+        }
+        births.clear();
+        if (profiling) {
+            compactNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Find the first obstacle, in obstacle list order, colliding with a rectangle.
+     * 
+     * @param x the x-coordinate of the rectangle's center
+     * @param y the y-coordinate of the rectangle's center
+     * @param width the width of the rectangle
+     * @param height the height of the rectangle
+     * @return the colliding obstacle, or null if there is none
+     */
+    public Obstacle findCollidingObstacle(double x, double y, double width, double height) {
+        metrics.countCollisionSearch();
+        bakeObstacles();
+        return obstacleGrid.findFirstColliding(x, y, width, height);
+    }
+
+    /**
+     * Rasterise the obstacles into the obstacle grid if they changed since it was last baked.
+     * Ticks bake before any worker starts, so robots never bake concurrently.
+     */
+    private void bakeObstacles() {
+        if (bakedObstacleVersion != obstacleVersion) {
+            obstacleGrid.bake(obstacles, xmax, ymax);
+            bakedObstacleVersion = obstacleVersion;
+        }
+    }
+
+    /**
+     * Index the current prey positions for findPreyInRange, if the spatial index is enabled.
+     */
+    private void indexPreys() {
+        if (!spatialIndexEnabled) {
+            return;
+        }
+        preyGrid.reset(xmax, ymax, manyRobots.size());
+        for (int i = 0; i < manyRobots.size(); i++) {
+            Robot r = manyRobots.get(i);
+            if (r instanceof Prey) {
+                preyGrid.insert(i, r.getX(), r.getY());
+            }
+        }
+        preyGridValid = true;
+    }
+
+    /**
+     * Run an action for every index from 0 to n - 1, on the worker pool if there is one.
+     * 
+     * @param n the number of indices
+     * @param action the action to run for each index
+     */
+    private void forEachIndex(int n, IntConsumer action) {
+        if (pool == null) {
+            for (int i = 0; i < n; i++) {
+                action.accept(i);
+            }
+        } else {
+            pool.invoke(new IndexRangeAction(0, n, action));
+        }
+    }
+
+    /**
+     * EventProbes holds one event of each kind the tick emits, never committed, to ask
+     * whether a recording wants them without allocating. It is only loaded once the flight
+     * recorder runs, as loading the first event class starts JFR's instrumentation, which
+     * takes a few hundred milliseconds.
+     */
+    private static final class EventProbes {
+        private static final TickEvent TICK = new TickEvent();
+        private static final DetectionEvent DETECTION = new DetectionEvent();
+        private static final SplitEvent SPLIT = new SplitEvent();
+        private static final CompactionEvent COMPACTION = new CompactionEvent();
+
+        static boolean anyEnabled() {
+            return TICK.isEnabled() || DETECTION.isEnabled() || SPLIT.isEnabled() || COMPACTION.isEnabled();
+        }
+    }
+
+    /**
+     * IndexRangeAction splits a range of robot indices in halves until it is small enough to run directly.
+     */
+    private static class IndexRangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from, to;
+        private final IntConsumer action;
+
+        IndexRangeAction(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_GRAIN) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new IndexRangeAction(from, mid, action), new IndexRangeAction(mid, to, action));
+            }
+        }
     }
 }
\ No newline at end of file
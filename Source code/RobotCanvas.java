@@ -5,8 +5,8 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
-import javafx.collections.ObservableList;
 import java.util.ArrayList;
+import jdk.jfr.FlightRecorder;
 
 /**
  * RobotCanvas class represents a canvas for drawing robots and obstacles in the Robot Arena.
@@ -31,31 +31,41 @@ public class RobotCanvas extends Canvas {
     }
 
     /**
-     * Draws the robots on the canvas.
+     * Draws the robots of a frame on the canvas.
      * 
-     * @param robots the list of robots to draw
+     * @param frame the frame published by the arena
      */
-    public void drawRobots(ObservableList<Robot> robots) {
+    public void drawRobots(WorldFrame frame) {
+        RenderEvent event = null;
+        if (FlightRecorder.isInitialized()) {  // loading the event class would start JFR
+            event = new RenderEvent();
+            event.begin();
+        }
         GraphicsContext gc = this.getGraphicsContext2D();
         gc.clearRect(0, 0, this.getWidth(), this.getHeight());
         gc.strokeRect(0, 0, this.getWidth(), this.getHeight());
-        for (Robot r : robots) {
-            if (r instanceof Predator) {
-                gc.drawImage(predatorImage, r.getX() * 20, r.getY() * 20, 20, 20);
-            } else if (r instanceof Prey) {
-                gc.drawImage(preyImage, r.getX() * 20, r.getY() * 20, 20, 20);
-            }
+        int n = frame.size();
+        for (int i = 0; i < n; i++) {
+            Image image = frame.getSpecies(i) == SpeciesTable.PREDATOR ? predatorImage : preyImage;
+            gc.drawImage(image, frame.getX(i) * 20, frame.getY(i) * 20, 20, 20);
+        }
+        if (event != null && event.shouldCommit()) {
+            event.tick = frame.getTick();
+            event.robots = n;
+            event.commit();
         }
     }
 
     /**
-     * Draws the obstacles on the canvas.
+     * Draws the obstacles of a frame on the canvas.
      * 
-     * @param obstacles the list of obstacles to draw
+     * @param frame the frame published by the arena
      */
-    public void drawObstacles(ObservableList<Obstacle> obstacles) {
+    public void drawObstacles(WorldFrame frame) {
         GraphicsContext gc = this.getGraphicsContext2D();
-        for (Obstacle o : obstacles) {
+        int n = frame.getObstacleCount();
+        for (int i = 0; i < n; i++) {
+            Obstacle o = frame.getObstacle(i);
             gc.drawImage(obstacleImage, o.getX() * 20, o.getY() * 20, 20, 20);
         }
     }
@@ -2,6 +2,7 @@ package consoleVersion1;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Alert;
@@ -10,6 +11,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.Slider;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
@@ -19,7 +21,13 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
-import javafx.collections.FXCollections;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.Random;
 import javafx.geometry.Insets;
 
@@ -29,7 +37,25 @@ import javafx.geometry.Insets;
  * It allows users to interact with robots, manage the arena, and visualize the simulation.
  */
 public class RobotInterface extends Application {
+    /** System property naming the snapshot file written by Save and read by Load; status.eco if unset. */
+    public static final String SNAPSHOT_FILE_PROPERTY = "ecosystem.snapshotFile";
+    /** System property naming the file a recording is written to; run.rec if unset. */
+    public static final String RECORDING_FILE_PROPERTY = "ecosystem.recordingFile";
+    private static final Path SNAPSHOT_FILE = Paths.get(System.getProperty(SNAPSHOT_FILE_PROPERTY, "status.eco"));
+    private static final Path RECORDING_FILE = Paths.get(System.getProperty(RECORDING_FILE_PROPERTY, "run.rec"));
+    private static final int HISTORY_INTERVAL = 100;        // ticks between rewind keyframes
+    private static final long HISTORY_BYTES = 64L << 20;    // memory kept for rewinding
+    private static final int FRAME_READ_ATTEMPTS = 3;       // copies tried before skipping a redraw
+    /** System property that switches Mode 1 to double-buffered ticks; in-order ticks if unset. */
+    public static final String DOUBLE_BUFFERED_PROPERTY = "ecosystem.doubleBuffered";
     private RobotArena myArena;
+    private SimulationScheduler scheduler;
+    private final WorldFrame view = new WorldFrame();  // the UI's copy of the last frame read whole
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter();  // writes saves off the UI thread
+    private volatile RunRecording recording;  // the run being recorded, or null, set on the simulation thread
+    private boolean isRecording = false;      // whether the Record button has started a recording
+    private Slider timeline;                  // scrubs back through the run's history
+    private boolean syncingTimeline = false;  // set while the timeline follows the run, not the user
     private RobotCanvas rc;
     private AnimationTimer animationTimer;
     private Random random = new Random();
@@ -46,8 +72,12 @@ public class RobotInterface extends Application {
 
         // Initialize obstacles
         myArena.addRandomObstacles(2, 1.0, 1.0); // The width and height of the obstacles are 1.0
-        rc.drawRobots(myArena.getObservableRobots());
-        rc.drawObstacles(FXCollections.observableArrayList(myArena.getObstacles()));
+        scheduler = new SimulationScheduler(myArena, 20, // 20 ticks per second, as the old 50 ms timer
+                Boolean.getBoolean(DOUBLE_BUFFERED_PROPERTY));
+        scheduler.setHistory(new KeyframeHistory(HISTORY_INTERVAL, HISTORY_BYTES));
+        timeline = new Slider(0, 0, 0);
+        timeline.setPrefWidth(200);
+        drawFrame();
 
         // Scene control area
         GridPane sceneControlPane = new GridPane();
@@ -70,10 +100,12 @@ public class RobotInterface extends Application {
             int treeCount = Integer.parseInt(treeCountField.getText());
             rc.setWidth(canvasWidth);
             rc.setHeight(canvasHeight);
-            myArena.clearArena();
-            myArena.addRandomObstacles(treeCount, 0.2, 0.2); // Use rectangle width and height when adding obstacles
-            rc.drawRobots(myArena.getObservableRobots());
-            rc.drawObstacles(FXCollections.observableArrayList(myArena.getObstacles()));
+            RobotArena arena = myArena;
+            scheduler.execute(() -> {
+                record(r -> r.recordScene(arena, treeCount));
+                RunRecording.applyScene(arena, treeCount);
+            });
+            drawFrame();
         });
 
         // Robot control area
@@ -87,16 +119,13 @@ public class RobotInterface extends Application {
         applyRobotButton.setOnAction(e -> {
             int predatorCount = Integer.parseInt(predatorCountField.getText());
             int preyCount = Integer.parseInt(preyCountField.getText());
-            myArena.clearRobots();
-            for (int i = 0; i < predatorCount; i++) {
-                myArena.addRobot(new Predator(random.nextInt(myArena.getXSize()), random.nextInt(myArena.getYSize()), random.nextDouble() * 360));
-            }
-            for (int i = 0; i < preyCount; i++) {
-                myArena.addRobot(new Prey(random.nextInt(myArena.getXSize()), random.nextInt(myArena.getYSize()), random.nextDouble() * 360));
-            }
-            rc.drawRobots(myArena.getObservableRobots());
-            rc.drawObstacles(FXCollections.observableArrayList(myArena.getObstacles()));
-            if (!myArena.getRobots().isEmpty()) {
+            RobotArena arena = myArena;
+            scheduler.execute(() -> {
+                record(r -> r.recordRobots(arena, predatorCount, preyCount));
+                RunRecording.applyRobots(arena, predatorCount, preyCount);
+            });
+            drawFrame();
+            if (predatorCount + preyCount > 0) {
                 selectedRobotIndex = 0;
                 updateSelectedRobotLabel();
             }
@@ -118,23 +147,46 @@ public class RobotInterface extends Application {
         Button saveButton = new Button("Save");
         Button loadButton = new Button("Load");
         Button testModeButton = new Button("Test Mode"); // Add Test Mode button
+        Button recordButton = new Button("Record");
 
         beginButton.setOnAction(e -> startAnimation());
+        // Dragging the timeline back rewinds the run once the thumb is released
+        timeline.valueChangingProperty().addListener((obs, wasChanging, changing) -> {
+            if (!changing) {
+                rewindTo((long) timeline.getValue());
+            }
+        });
+        timeline.valueProperty().addListener((obs, oldValue, value) -> {
+            if (!syncingTimeline && !timeline.isValueChanging()) {
+                rewindTo(value.longValue());
+            }
+        });
         stopButton.setOnAction(e -> stopAnimation());
         saveButton.setOnAction(e -> saveStateToFile());
+        recordButton.setOnAction(e -> {
+            if (!isRecording) {
+                startRecording();
+                recordButton.setText("Stop Recording");
+            } else {
+                stopRecording();
+                recordButton.setText("Record");
+            }
+        });
         loadButton.setOnAction(e -> {
             loadStateFromFile();
-            rc.drawRobots(myArena.getObservableRobots());
-            rc.drawObstacles(FXCollections.observableArrayList(myArena.getObstacles()));
+            drawFrame();
             // Update counts in the configuration box
             widthField.setText(String.valueOf((int) rc.getWidth()));
             heightField.setText(String.valueOf((int) rc.getHeight()));
-            treeCountField.setText(String.valueOf(myArena.getObstacles().size()));
-            predatorCountField.setText(String.valueOf(myArena.getRobots().size()));
+            treeCountField.setText(String.valueOf(myArena.getFrame().getObstacleCount()));
+            predatorCountField.setText(String.valueOf(myArena.getFrame().size()));
         });
 
         // Event handling for Test Mode button
         testModeButton.setOnAction(e -> {
+            RobotArena arena = myArena;
+            scheduler.execute(() -> record(r -> r.recordTestMode(arena)));
+
             // Clear and redraw canvas
             rc.getGraphicsContext2D().clearRect(0, 0, rc.getWidth(), rc.getHeight());
             rc.getGraphicsContext2D().setStroke(Color.BLACK);
@@ -202,7 +254,7 @@ public class RobotInterface extends Application {
                 r.draw(gc);
             }
         });
-        buttonBox.getChildren().addAll(beginButton, stopButton, saveButton, loadButton, testModeButton); // Add Test Mode button to button box
+        buttonBox.getChildren().addAll(beginButton, stopButton, timeline, saveButton, loadButton, testModeButton, recordButton); // Add Test Mode button to button box
 
         // Place scene control area and robot control area on the left
         VBox leftControl = new VBox(10);
@@ -234,23 +286,27 @@ public class RobotInterface extends Application {
         Button moveButton = new Button("Move");
         Button deleteButton = new Button("Delete");
         Button nextButton = new Button("Next");
+        Button infoButton = new Button("Info");
 
         // Set preferred width for buttons
         moveButton.setPrefWidth(150);
         deleteButton.setPrefWidth(150);
         nextButton.setPrefWidth(150);
+        infoButton.setPrefWidth(150);
 
         // Button actions
         moveButton.setOnAction(e -> moveSelectedRobot());
         deleteButton.setOnAction(e -> deleteSelectedRobot());
         nextButton.setOnAction(e -> selectNextRobot());
+        infoButton.setOnAction(e -> showSelectedRobotInfo());
 
         // Add all controls to right panel
         rightControl.getChildren().addAll(
             selectedRobotLabel,
             moveButton,
             deleteButton,
-            nextButton
+            nextButton,
+            infoButton
         );
 
         // Add right control to layout
@@ -382,9 +438,8 @@ public class RobotInterface extends Application {
                         rc.getGraphicsContext2D().setLineWidth(2);
                         rc.getGraphicsContext2D().strokeRect(0, 0, rc.getWidth(), rc.getHeight());
                         
-                        myArena.updateRobots();
-                        rc.drawRobots(myArena.getObservableRobots());
-                        rc.drawObstacles(FXCollections.observableArrayList(myArena.getObstacles()));
+                        // The arena is ticked by the scheduler, only draw its latest frame
+                        drawFrame();
                         
                         // Draw obstacles
                         drawObstacles(rc.getGraphicsContext2D());
@@ -423,6 +478,7 @@ public class RobotInterface extends Application {
             robot.startMoving();
         }
         
+        scheduler.start();
         animationTimer.start();
     }
     
@@ -431,6 +487,7 @@ public class RobotInterface extends Application {
      */
     private void stopAnimation() {
         isAnimationRunning = false;
+        scheduler.stop();
         if (animationTimer != null) {
             animationTimer.stop();
         }
@@ -440,74 +497,213 @@ public class RobotInterface extends Application {
     }
 
     /**
-     * Saves the current state of the arena and robots to a file.
+     * Saves the current state of the arena and robots to a binary snapshot file. The state
+     * is copied between two ticks and written in the background, so the simulation and the
+     * animation keep running, and the result is reported when the write finishes.
      */
     private void saveStateToFile() {
-        TextFile tf = new TextFile("Robot data files", "txt");
-        if (tf.createFile()) {
-            tf.putNextLine("Canvas Size: " + (int) rc.getWidth() + " " + (int) rc.getHeight());
-            tf.putNextLine("Arena Size: " + myArena.getXSize() + " " + myArena.getYSize());
-            for (Robot r : myArena.getRobots()) {
-                String type = r instanceof Predator ? "Predator" : "Prey";
-                tf.putNextLine(type + ": " + r.getId() + " " + r.getX() + " " + r.getY() + " " + r.getAngle());
+        snapshotWriter.save(scheduler, myArena, (int) rc.getWidth(), (int) rc.getHeight(), SNAPSHOT_FILE)
+                .whenComplete((snapshot, error) -> Platform.runLater(() -> {
+                    if (error == null) {
+                        showAlert("Success", "State saved!");
+                    } else {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        showAlert("Error", "Save failed: " + cause.getMessage());
+                    }
+                }));
+    }
+
+    /**
+     * Loads the state of the arena and robots from the snapshot file, or from a text save
+     * made before snapshots if there is no snapshot yet.
+     */
+    private void loadStateFromFile() {
+        boolean wasRunning = scheduler.isRunning();
+        scheduler.stop();
+        if (!Files.isRegularFile(SNAPSHOT_FILE)) {
+            loadTextState(wasRunning);
+            return;
+        }
+        try {
+            ArenaSnapshot snapshot = ArenaSnapshot.read(SNAPSHOT_FILE);
+            useLoadedArena(snapshot.restore());
+            if (snapshot.getViewWidth() > 0 && snapshot.getViewHeight() > 0) {
+                rc.setWidth(snapshot.getViewWidth());
+                rc.setHeight(snapshot.getViewHeight());
             }
-            for (Obstacle o : myArena.getObstacles()) {
-                tf.putNextLine("Obstacle: " + o.getX() + " " + o.getY() + " " + o.getWidth() + " " + o.getHeight());
+            scheduler.setArena(myArena);
+            restartIf(wasRunning);
+            showAlert("Success", "State loaded!");
+        } catch (IOException e) {
+            restartIf(wasRunning);
+            showAlert("Error", "Load failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the state of the arena and robots from a text save file.
+     * 
+     * @param wasRunning whether the scheduler was running before the load
+     */
+    private void loadTextState(boolean wasRunning) {
+        Path file = TextFile.getStatusPath();
+        if (!Files.isRegularFile(file)) {
+            restartIf(wasRunning);
+            showAlert("Error", "Load cancelled.");
+            return;
+        }
+        try {
+            TextWorldLoader loader = new TextWorldLoader(new TextFile(file), Runtime.getRuntime().availableProcessors());
+            useLoadedArena(loader.load());
+            if (loader.getCanvasWidth() > 0 && loader.getCanvasHeight() > 0) {
+                rc.setWidth(loader.getCanvasWidth());
+                rc.setHeight(loader.getCanvasHeight());
             }
-            tf.closeWriteFile();
-            showAlert("Success", "State saved!");
-        } else {
-            showAlert("Error", "Save cancelled.");
+            scheduler.setArena(myArena);
+            restartIf(wasRunning);
+            showAlert("Success", "State loaded!");
+        } catch (IOException | NumberFormatException e) {
+            restartIf(wasRunning);
+            showAlert("Error", "Load failed: " + e.getMessage());
         }
     }
 
     /**
-     * Loads the state of the arena and robots from a file.
+     * Switches to a loaded arena, recording the load if a run is being recorded. Only call
+     * this while the scheduler is stopped.
+     *
+     * @param loaded the loaded arena
      */
-    private void loadStateFromFile() {
-        TextFile tf = new TextFile("Robot data files", "txt");
-        if (tf.openFile()) {
-            myArena.clearArena();
-            if (tf.getNextline()) {
-                String[] canvasSize = tf.nextLine().split(" ");
-                rc.setWidth(Double.parseDouble(canvasSize[2]));
-                rc.setHeight(Double.parseDouble(canvasSize[3]));
+    private void useLoadedArena(RobotArena loaded) {
+        RobotArena replaced = myArena;
+        record(r -> r.recordLoad(replaced, loaded));
+        myArena = loaded;
+    }
+
+    /**
+     * Starts recording the run from the arena's state at the next tick boundary.
+     */
+    private void startRecording() {
+        isRecording = true;
+        RobotArena arena = myArena;
+        scheduler.execute(() -> recording = RunRecording.start(arena));
+    }
+
+    /**
+     * Stops recording at the next tick boundary and writes the recording in the background.
+     */
+    private void stopRecording() {
+        isRecording = false;
+        RobotArena arena = myArena;
+        CompletableFuture.supplyAsync(() -> {
+            RunRecording r = recording;
+            recording = null;
+            r.finish(arena);
+            return r;
+        }, scheduler::execute).thenAcceptAsync(r -> {
+            try {
+                r.write(RECORDING_FILE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            if (tf.getNextline()) {
-                String[] arenaSize = tf.nextLine().split(" ");
-                myArena = new RobotArena(Integer.parseInt(arenaSize[2]), Integer.parseInt(arenaSize[3]));
+        }).whenComplete((done, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                showAlert("Success", "Run recorded to " + RECORDING_FILE + "!");
+            } else {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showAlert("Error", "Recording failed: " + cause.getMessage());
             }
-            while (tf.getNextline()) {
-                String[] data = tf.nextLine().split(" ");
-                if (data[0].equals("Predator:")) {
-                    Predator p = new Predator(
-                            Double.parseDouble(data[2]),
-                            Double.parseDouble(data[3]),
-                            Double.parseDouble(data[4])
-                    );
-                    myArena.addRobot(p);
-                } else if (data[0].equals("Prey:")) {
-                    Prey p = new Prey(
-                            Double.parseDouble(data[2]),
-                            Double.parseDouble(data[3]),
-                            Double.parseDouble(data[4])
-                    );
-                    myArena.addRobot(p);
-                } else if (data[0].equals("Obstacle:")) {
-                    Obstacle o = new Obstacle(
-                            Double.parseDouble(data[1]),
-                            Double.parseDouble(data[2]),
-                            Double.parseDouble(data[3]),
-                            Double.parseDouble(data[4])
-                    );
-                    myArena.addObstacle(o);
-                }
+        }));
+    }
+
+    /**
+     * Adds an event to the recording, if a run is being recorded. Call it on the thread
+     * that ticks the arena, before the change is made.
+     *
+     * @param event adds the event to the recording
+     */
+    private void record(Consumer<RunRecording> event) {
+        RunRecording r = recording;
+        if (r != null) {
+            event.accept(r);
+        }
+    }
+
+    /**
+     * Restarts the simulation thread after a save or load, if it was running before.
+     * 
+     * @param wasRunning whether the scheduler was running
+     */
+    private void restartIf(boolean wasRunning) {
+        if (wasRunning) {
+            scheduler.start();
+        }
+    }
+
+    /**
+     * Draws the robots and obstacles of the arena's latest published frame. If the frame
+     * keeps being rewritten while it is read, the redraw is skipped and the next one catches up.
+     */
+    private void drawFrame() {
+        if (readFrame()) {
+            rc.drawRobots(view);
+            rc.drawObstacles(view);
+            updateTimeline(view.getTick());
+        }
+    }
+
+    /**
+     * Copies the arena's latest published frame into the view, retrying if the simulation
+     * thread rewrote it during the copy.
+     *
+     * @return true if the view now holds the latest frame, false if it still holds an older one
+     */
+    private boolean readFrame() {
+        for (int attempt = 0; attempt < FRAME_READ_ATTEMPTS; attempt++) {
+            if (myArena.getFrame().copyTo(view)) {
+                return true;
             }
-            tf.closeFile();
-            showAlert("Success", "State loaded!");
-        } else {
-            showAlert("Error", "Load cancelled.");
         }
+        return false;
+    }
+
+    /**
+     * Moves the timeline to the current tick and stretches it over the ticks the history
+     * can rewind to, unless the user is dragging it.
+     *
+     * @param tick the current tick
+     */
+    private void updateTimeline(long tick) {
+        if (timeline.isValueChanging()) {
+            return;
+        }
+        long oldest = scheduler.getHistory().getOldestTick();
+        syncingTimeline = true;
+        timeline.setMin(oldest < 0 ? tick : Math.min(oldest, tick));
+        timeline.setMax(tick);
+        timeline.setValue(tick);
+        syncingTimeline = false;
+    }
+
+    /**
+     * Takes the run back to an earlier tick on the timeline, continuing from there if it
+     * was running. A rewind is recorded like a load of the earlier state.
+     *
+     * @param tick the tick to go back to
+     */
+    private void rewindTo(long tick) {
+        if (tick >= myArena.getFrame().getTick()) {
+            return;
+        }
+        boolean wasRunning = scheduler.isRunning();
+        scheduler.stop();
+        RobotArena past = scheduler.rewind(tick);
+        if (past != null) {
+            useLoadedArena(past);
+        }
+        restartIf(wasRunning);
+        drawFrame();
+        updateInfoPanel();
     }
 
     /**
@@ -524,6 +720,15 @@ public class RobotInterface extends Application {
         alert.showAndWait();
     }
 
+    /**
+     * Lets any save still being written finish before the application exits.
+     */
+    @Override
+    public void stop() {
+        scheduler.stop();
+        snapshotWriter.close();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -551,17 +756,19 @@ public class RobotInterface extends Application {
         info.append("Canvas Size: ").append((int)rc.getWidth()).append(" ").append((int)rc.getHeight()).append("\n");
         info.append("Arena Size: ").append(myArena.getXSize()).append(" ").append(myArena.getYSize()).append("\n");
         
-        for (Robot r : myArena.getRobots()) {
-            String type = r instanceof Predator ? "Predator" : "Prey";
-            info.append(type).append(": ")
-                .append(r.getId()).append(" ")
-                .append(String.format("%.2f", r.getX())).append(" ")
-                .append(String.format("%.2f", r.getY())).append(" ")
-                .append(String.format("%.2f", r.getAngle()))
+        readFrame();
+        WorldFrame frame = view;
+        for (int i = 0; i < frame.size(); i++) {
+            info.append(SpeciesTable.getName(frame.getSpecies(i))).append(": ")
+                .append(frame.getId(i)).append(" ")
+                .append(String.format("%.2f", frame.getX(i))).append(" ")
+                .append(String.format("%.2f", frame.getY(i))).append(" ")
+                .append(String.format("%.2f", frame.getAngle(i)))
                 .append("\n");
         }
         
-        for (Obstacle o : myArena.getObstacles()) {
+        for (int i = 0; i < frame.getObstacleCount(); i++) {
+            Obstacle o = frame.getObstacle(i);
             info.append("Obstacle: ")
                 .append(String.format("%.2f", o.getX())).append(" ")
                 .append(String.format("%.2f", o.getY())).append(" ")
@@ -605,13 +812,16 @@ public class RobotInterface extends Application {
      * Moves the currently selected robot in the arena.
      */
     private void moveSelectedRobot() {
-        if (selectedRobotIndex >= 0 && selectedRobotIndex < myArena.getRobots().size()) {
-            Robot robot = myArena.getRobots().get(selectedRobotIndex);
-            robot.tryToMove(myArena);  // Use tryToMove() instead of move()
+        if (selectedRobotIndex >= 0 && selectedRobotIndex < myArena.getFrame().size()) {
+            RobotArena arena = myArena;
+            int index = selectedRobotIndex;
+            scheduler.execute(() -> {
+                record(r -> r.recordMove(arena, index));
+                RunRecording.applyMove(arena, index);
+            });
             
             // Redraw canvas
-            rc.drawRobots(myArena.getObservableRobots());
-            rc.drawObstacles(FXCollections.observableArrayList(myArena.getObstacles()));
+            drawFrame();
             
             // Update info panel
             updateInfoPanel();
@@ -622,21 +832,26 @@ public class RobotInterface extends Application {
      * Deletes the currently selected robot from the arena.
      */
     private void deleteSelectedRobot() {
-        if (selectedRobotIndex >= 0 && selectedRobotIndex < myArena.getRobots().size()) {
-            myArena.getRobots().remove(selectedRobotIndex);
+        int size = myArena.getFrame().size();
+        if (selectedRobotIndex >= 0 && selectedRobotIndex < size) {
+            RobotArena arena = myArena;
+            int index = selectedRobotIndex;
+            scheduler.execute(() -> {
+                record(r -> r.recordDelete(arena, index));
+                RunRecording.applyDelete(arena, index);
+            });
             
             // If there are remaining robots, select the next one or the last one
-            if (!myArena.getRobots().isEmpty()) {
-                if (selectedRobotIndex >= myArena.getRobots().size()) {
-                    selectedRobotIndex = myArena.getRobots().size() - 1;
+            if (size > 1) {
+                if (selectedRobotIndex >= size - 1) {
+                    selectedRobotIndex = size - 2;
                 }
             } else {
                 selectedRobotIndex = -1;
             }
             
             // Redraw canvas
-            rc.drawRobots(myArena.getObservableRobots());
-            rc.drawObstacles(FXCollections.observableArrayList(myArena.getObstacles()));
+            drawFrame();
             
             // Update info panel and selected robot label
             updateInfoPanel();
@@ -648,20 +863,40 @@ public class RobotInterface extends Application {
      * Selects the next robot in the arena.
      */
     private void selectNextRobot() {
-        if (!myArena.getRobots().isEmpty()) {
-            selectedRobotIndex = (selectedRobotIndex + 1) % myArena.getRobots().size();
+        int size = myArena.getFrame().size();
+        if (size > 0) {
+            selectedRobotIndex = (selectedRobotIndex + 1) % size;
             updateSelectedRobotLabel();
         }
     }
     
+    /**
+     * Displays information about the currently selected robot in an alert dialog.
+     */
+    private void showSelectedRobotInfo() {
+        readFrame();
+        WorldFrame frame = view;
+        int i = selectedRobotIndex;
+        if (i >= 0 && i < frame.size()) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Robot Information");
+            alert.setHeaderText("Robot " + frame.getId(i));
+            alert.setContentText(Robot.formatInfo(frame.getX(i), frame.getY(i), frame.getAngle(i)));
+            alert.showAndWait();
+        }
+    }
+
     /**
      * Updates the label displaying the currently selected robot's information.
      */
     private void updateSelectedRobotLabel() {
-        if (selectedRobotIndex >= 0 && selectedRobotIndex < myArena.getRobots().size()) {
-            Robot robot = myArena.getRobots().get(selectedRobotIndex);
-            String type = robot instanceof Predator ? "Predator" : "Prey";
-            selectedRobotLabel.setText(type + " " + robot.getId());
+        readFrame();
+        WorldFrame frame = view;
+        if (selectedRobotIndex >= frame.size()) {
+            selectedRobotIndex = frame.size() - 1;
+        }
+        if (selectedRobotIndex >= 0) {
+            selectedRobotLabel.setText(SpeciesTable.getName(frame.getSpecies(selectedRobotIndex)) + " " + frame.getId(selectedRobotIndex));
         } else {
             selectedRobotLabel.setText("No robot selected");
         }
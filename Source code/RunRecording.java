@@ -0,0 +1,442 @@
+package consoleVersion1;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RunRecording is everything needed to re-run a Mode 1 session exactly: the arena as it
+ * was when recording started, and every user intervention since, each with the tick it
+ * happened at. As ticks are deterministic given the arena's state, nothing else is stored,
+ * so a recording stays a few bytes per intervention however long the run.
+ *
+ * Interventions are made through the apply methods, both live and when replaying, so they
+ * change the arena the same way each time. Record them between ticks, on the thread that
+ * runs them. Events are timed in recording ticks, the ticks run since recording started,
+ * which keep counting on across a load even though the loaded arena has its own tick
+ * count. A load is recorded with a snapshot of the loaded arena, as its file may change
+ * later. START and LOAD also keep the tick mode, in-order, phased or double-buffered, that the run
+ * was ticked in, and the arena they restore is set to it, as the two modes give different
+ * runs. ReplayEngine re-runs a recording.
+ *
+ * File layout, little-endian:
+ * <pre>
+ * int  magic "ECOR", int version
+ * then events: byte kind, long recording tick, then
+ *   START, LOAD:   byte tick mode (1 double-buffered, 2 phased, 0 in order), int length,
+ *                  an ArenaSnapshot of that many bytes
+ *   SCENE:         int tree count
+ *   ROBOTS:        int predator count, int prey count
+ *   MOVE, DELETE:  int robot index
+ *   TEST_MODE:     nothing
+ *   END:           nothing, the tick recording stopped at
+ * </pre>
+ */
+public class RunRecording {
+    /** The first int of every recording file. */
+    public static final int MAGIC = 0x45434F52;
+    /** The format version written by this class. */
+    public static final int VERSION = 2;
+
+    /**
+     * Kind is what an event of the recording does.
+     */
+    public enum Kind {
+        /** The arena recording started from. */
+        START,
+        /** Apply Scene: clear the arena and add random trees. */
+        SCENE,
+        /** Apply Robots: replace the robots with random predators and prey. */
+        ROBOTS,
+        /** Move the robot at an index one step. */
+        MOVE,
+        /** Delete the robot at an index. */
+        DELETE,
+        /** Replace the arena with a loaded one. */
+        LOAD,
+        /** Test Mode was entered. It only affects the Mode 2 robots, so replays ignore it. */
+        TEST_MODE,
+        /** Recording stopped. */
+        END
+    }
+
+    /**
+     * Event is one entry of a recording.
+     */
+    public static final class Event {
+        private final Kind kind;
+        private final long tick;
+        private final int first, second;     // the counts or robot index, by kind
+        private final ArenaSnapshot state;  // for START and LOAD
+        private final int tickMode;  // RobotArena TICK_ flags from a START or LOAD on
+
+        private Event(Kind kind, long tick, int first, int second, ArenaSnapshot state) {
+            this(kind, tick, first, second, state, 0);
+        }
+
+        private Event(Kind kind, long tick, int first, int second, ArenaSnapshot state, int tickMode) {
+            this.kind = kind;
+            this.tick = tick;
+            this.first = first;
+            this.second = second;
+            this.state = state;
+            this.tickMode = tickMode;
+        }
+
+        /**
+         * Returns what the event does.
+         *
+         * @return the kind
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the recording tick the event happened at, before that tick's update.
+         *
+         * @return the ticks run since recording started
+         */
+        public long getTick() {
+            return tick;
+        }
+
+        /**
+         * Returns whether the run was ticked double-buffered from a START or LOAD on.
+         *
+         * @return true for double-buffered ticks, false for other ticks or other kinds
+         */
+        public boolean isDoubleBuffered() {
+            return (tickMode & RobotArena.TICK_DOUBLE_BUFFERED) != 0;
+        }
+
+        /**
+         * Returns whether the run was ticked in phases from a START or LOAD on.
+         *
+         * @return true for phased ticks, false for other ticks or other kinds
+         */
+        public boolean isPhased() {
+            return (tickMode & RobotArena.TICK_PHASED) != 0;
+        }
+
+        /**
+         * Makes the event's change to an arena.
+         *
+         * @param arena the arena, at the event's recording tick
+         * @return the arena to continue with: a new one in the recorded tick mode for START
+         *         and LOAD, else the same one
+         */
+        public RobotArena applyTo(RobotArena arena) {
+            switch (kind) {
+                case START:
+                case LOAD:
+                    RobotArena restored = state.restore();
+                    restored.setTickMode(tickMode);
+                    return restored;
+                case SCENE:
+                    applyScene(arena, first);
+                    break;
+                case ROBOTS:
+                    applyRobots(arena, first, second);
+                    break;
+                case MOVE:
+                    applyMove(arena, first);
+                    break;
+                case DELETE:
+                    applyDelete(arena, first);
+                    break;
+                default:
+                    break;
+            }
+            return arena;
+        }
+    }
+
+    private final List<Event> events = new ArrayList<>();
+    private long segmentStart;       // recording tick of the last START or LOAD
+    private long segmentArenaTick;   // the arena's own tick then
+
+    private RunRecording() {
+    }
+
+    /**
+     * Starts a recording from the current state of an arena, in its tick mode. Call it
+     * between ticks, on the thread that runs them.
+     *
+     * @param arena the arena
+     * @return the recording
+     */
+    public static RunRecording start(RobotArena arena) {
+        RunRecording recording = new RunRecording();
+        recording.events.add(new Event(Kind.START, 0, 0, 0, ArenaSnapshot.capture(arena), arena.getTickMode()));
+        recording.segmentArenaTick = arena.getTick();
+        return recording;
+    }
+
+    /**
+     * Clears an arena and adds random trees, as Apply Scene does.
+     *
+     * @param arena     the arena
+     * @param treeCount the number of trees
+     */
+    public static void applyScene(RobotArena arena, int treeCount) {
+        arena.clearArena();
+        arena.addRandomObstacles(treeCount, 0.2, 0.2);
+    }
+
+    /**
+     * Replaces an arena's robots with random predators and prey, as Apply Robots does.
+     *
+     * @param arena         the arena
+     * @param predatorCount the number of predators
+     * @param preyCount     the number of prey
+     */
+    public static void applyRobots(RobotArena arena, int predatorCount, int preyCount) {
+        arena.clearRobots();
+        arena.addRandomRobots(predatorCount, preyCount);
+    }
+
+    /**
+     * Moves the robot at an index one step, if there is one.
+     *
+     * @param arena the arena
+     * @param index the robot index
+     */
+    public static void applyMove(RobotArena arena, int index) {
+        if (index < arena.getRobots().size()) {
+            arena.moveRobot(index);
+        }
+    }
+
+    /**
+     * Deletes the robot at an index, if there is one.
+     *
+     * @param arena the arena
+     * @param index the robot index
+     */
+    public static void applyDelete(RobotArena arena, int index) {
+        if (index < arena.getRobots().size()) {
+            arena.removeRobot(index);
+        }
+    }
+
+    /**
+     * Records an Apply Scene.
+     *
+     * @param arena     the arena, after its last tick
+     * @param treeCount the number of trees
+     */
+    public synchronized void recordScene(RobotArena arena, int treeCount) {
+        events.add(new Event(Kind.SCENE, now(arena), treeCount, 0, null));
+    }
+
+    /**
+     * Records an Apply Robots.
+     *
+     * @param arena         the arena, after its last tick
+     * @param predatorCount the number of predators
+     * @param preyCount     the number of prey
+     */
+    public synchronized void recordRobots(RobotArena arena, int predatorCount, int preyCount) {
+        events.add(new Event(Kind.ROBOTS, now(arena), predatorCount, preyCount, null));
+    }
+
+    /**
+     * Records a Move of one robot.
+     *
+     * @param arena the arena, after its last tick
+     * @param index the robot index
+     */
+    public synchronized void recordMove(RobotArena arena, int index) {
+        events.add(new Event(Kind.MOVE, now(arena), index, 0, null));
+    }
+
+    /**
+     * Records a Delete of one robot.
+     *
+     * @param arena the arena, after its last tick
+     * @param index the robot index
+     */
+    public synchronized void recordDelete(RobotArena arena, int index) {
+        events.add(new Event(Kind.DELETE, now(arena), index, 0, null));
+    }
+
+    /**
+     * Records a load, keeping a snapshot of the loaded arena. The run goes on in the
+     * replaced arena's tick mode. Call it before the loaded arena is ticked.
+     *
+     * @param replaced the arena that was replaced, after its last tick
+     * @param loaded   the loaded arena
+     */
+    public synchronized void recordLoad(RobotArena replaced, RobotArena loaded) {
+        long time = now(replaced);
+        events.add(new Event(Kind.LOAD, time, 0, 0, ArenaSnapshot.capture(loaded), replaced.getTickMode()));
+        segmentStart = time;
+        segmentArenaTick = loaded.getTick();
+    }
+
+    /**
+     * Records that Test Mode was entered.
+     *
+     * @param arena the arena, after its last tick
+     */
+    public synchronized void recordTestMode(RobotArena arena) {
+        events.add(new Event(Kind.TEST_MODE, now(arena), 0, 0, null));
+    }
+
+    /**
+     * Records the end of the recording.
+     *
+     * @param arena the arena, after its last tick
+     */
+    public synchronized void finish(RobotArena arena) {
+        events.add(new Event(Kind.END, now(arena), 0, 0, null));
+    }
+
+    /**
+     * Returns the recording tick an arena of the current segment is at.
+     */
+    private long now(RobotArena arena) {
+        return segmentStart + arena.getTick() - segmentArenaTick;
+    }
+
+    /**
+     * Returns the events recorded so far, starting with START.
+     *
+     * @return a copy of the events
+     */
+    public synchronized List<Event> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Returns the recording tick the recording ends at: that of END, or of the last event
+     * if it has not finished.
+     *
+     * @return the last recording tick
+     */
+    public synchronized long getEndTick() {
+        return events.get(events.size() - 1).tick;
+    }
+
+    /**
+     * Writes the recording to a file, replacing it if it exists.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocate(1 + 8 + 1 + 2 * 4).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(channel, buf);
+            for (Event e : events) {
+                buf.clear();
+                buf.put((byte) e.kind.ordinal()).putLong(e.tick);
+                switch (e.kind) {
+                    case START:
+                    case LOAD:
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(e.state.byteSize(), Integer.MAX_VALUE));
+                        e.state.write(Channels.newChannel(bytes));
+                        buf.put((byte) e.tickMode).putInt(bytes.size()).flip();
+                        writeFully(channel, buf);
+                        writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()));
+                        continue;
+                    case SCENE:
+                    case MOVE:
+                    case DELETE:
+                        buf.putInt(e.first);
+                        break;
+                    case ROBOTS:
+                        buf.putInt(e.first).putInt(e.second);
+                        break;
+                    default:
+                        break;
+                }
+                buf.flip();
+                writeFully(channel, buf);
+            }
+        }
+    }
+
+    /**
+     * Reads a recording written by write().
+     *
+     * @param path the file to read
+     * @return the recording
+     * @throws IOException if the file cannot be read or is not a recording of a known version
+     */
+    public static RunRecording read(Path path) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        RunRecording recording = new RunRecording();
+        try {
+            if (buf.getInt() != MAGIC) {
+                throw new IOException(path + " is not a run recording");
+            }
+            int version = buf.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " has recording version " + version + ", expected " + VERSION);
+            }
+            Kind[] kinds = Kind.values();
+            while (buf.hasRemaining()) {
+                int k = buf.get();
+                if (k < 0 || k >= kinds.length) {
+                    throw new IOException(path + " has an unknown event kind " + k);
+                }
+                Kind kind = kinds[k];
+                long tick = buf.getLong();
+                int first = 0, second = 0;
+                ArenaSnapshot state = null;
+                int tickMode = 0;
+                switch (kind) {
+                    case START:
+                    case LOAD:
+                        tickMode = buf.get();
+                        int length = buf.getInt();
+                        if (length < 0 || length > buf.remaining()) {
+                            throw new IOException(path + " is truncated");
+                        }
+                        state = ArenaSnapshot.read(Channels.newChannel(
+                                new ByteArrayInputStream(buf.array(), buf.position(), length)), path);
+                        buf.position(buf.position() + length);
+                        break;
+                    case SCENE:
+                    case MOVE:
+                    case DELETE:
+                        first = buf.getInt();
+                        break;
+                    case ROBOTS:
+                        first = buf.getInt();
+                        second = buf.getInt();
+                        break;
+                    default:
+                        break;
+                }
+                recording.events.add(new Event(kind, tick, first, second, state, tickMode));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException(path + " is truncated", e);
+        }
+        if (recording.events.isEmpty() || recording.events.get(0).kind != Kind.START) {
+            throw new IOException(path + " does not start with an arena");
+        }
+        return recording;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+}
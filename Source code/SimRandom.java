@@ -0,0 +1,133 @@
+package consoleVersion1;
+
+/**
+ * SimRandom is a small SplitMix64 generator. Unlike java.util.Random it is not synchronized
+ * and its whole state is one long, so a run can be reproduced from a seed, saved and
+ * resumed, and split into independent streams for each robot.
+ *
+ * The static helpers let a robot keep its stream in a plain long field instead of
+ * holding a generator object.
+ */
+public class SimRandom {
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    /**
+     * Constructs a generator with a seed chosen from the clock.
+     */
+    public SimRandom() {
+        this(freshSeed());
+    }
+
+    /**
+     * Constructs a generator with a given seed.
+     *
+     * @param seed the seed
+     */
+    public SimRandom(long seed) {
+        state = seed;
+    }
+
+    /**
+     * Picks a seed for runs that were not given one.
+     *
+     * @return a new seed
+     */
+    public static long freshSeed() {
+        return mix(System.nanoTime() ^ System.currentTimeMillis() * GAMMA);
+    }
+
+    /**
+     * Scrambles a value with the SplitMix64 finalizer.
+     *
+     * @param z the value
+     * @return the scrambled value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Advances a stream state held by its owner.
+     *
+     * @param state the current state
+     * @return the next state
+     */
+    public static long advance(long state) {
+        return state + GAMMA;
+    }
+
+    /**
+     * Advances a stream state by many steps at once, as if advance() were called that
+     * many times. This lets separate threads find their place in one stream.
+     *
+     * @param state the current state
+     * @param steps the number of steps
+     * @return the state after the steps
+     */
+    public static long advance(long state, long steps) {
+        return state + steps * GAMMA;
+    }
+
+    /**
+     * Converts a stream state, after advance(), to a double in [0, 1).
+     *
+     * @param state the advanced state
+     * @return the random double
+     */
+    public static double toDouble(long state) {
+        return (mix(state) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Returns the state, which is enough to continue the same sequence later.
+     *
+     * @return the state
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Sets the state, restarting the sequence from a seed or a saved state.
+     *
+     * @param state the new state
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Returns the next random long.
+     *
+     * @return the random long
+     */
+    public long nextLong() {
+        state = advance(state);
+        return mix(state);
+    }
+
+    /**
+     * Returns the next random double in [0, 1).
+     *
+     * @return the random double
+     */
+    public double nextDouble() {
+        state = advance(state);
+        return toDouble(state);
+    }
+
+    /**
+     * Returns the next random int in [0, bound).
+     *
+     * @param bound the upper bound, which must be positive
+     * @return the random int
+     */
+    public int nextInt(int bound) {
+        return (int) (nextDouble() * bound);
+    }
+}
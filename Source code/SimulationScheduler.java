@@ -0,0 +1,270 @@
+package consoleVersion1;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SimulationScheduler runs RobotArena ticks on its own thread at a fixed rate, or as fast
+ * as possible, independently of how often the user interface redraws. The arena publishes
+ * a WorldFrame after every tick, which the UI reads without blocking the simulation.
+ *
+ * The tick mode is chosen when the scheduler is made and applied to every arena it runs.
+ * In-order ticks follow the original rules, where each robot sees the moves of the robots
+ * before it. Double-buffered ticks have every robot read the previous tick's frame, which
+ * makes a tick's result independent of robot order, so prey can be caught differently.
+ *
+ * While the scheduler is running, the arena may only be changed from the simulation
+ * thread, so other threads pass their changes to execute().
+ *
+ * With a KeyframeHistory set, the scheduler keeps keyframes as it ticks and after every
+ * change, and rewind() takes the run back to any tick the history still covers.
+ */
+public class SimulationScheduler {
+    private volatile RobotArena arena;
+    private final boolean doubleBuffered;
+    private volatile double ticksPerSecond;
+    private volatile int maxStepsPerFrame = 5;
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private volatile KeyframeHistory history;  // null to keep no history
+    private volatile boolean running = false;
+    private Thread thread;
+
+    /**
+     * Constructs a scheduler for an arena.
+     *
+     * @param arena          the arena to tick
+     * @param ticksPerSecond the tick rate, 0 or less to tick as fast as possible
+     * @param doubleBuffered true to run double-buffered ticks, false for in-order ticks
+     */
+    public SimulationScheduler(RobotArena arena, double ticksPerSecond, boolean doubleBuffered) {
+        this.doubleBuffered = doubleBuffered;
+        setArena(arena);
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    /**
+     * Checks which tick mode the scheduler runs its arenas in.
+     *
+     * @return true for double-buffered ticks, false for in-order ticks
+     */
+    public boolean isDoubleBuffered() {
+        return doubleBuffered;
+    }
+
+    /**
+     * Replaces the arena, for example after loading a saved state. The replaced arena's
+     * worker pool is shut down. Only call this while stopped.
+     *
+     * @param newArena the arena to tick from now on
+     */
+    public void setArena(RobotArena newArena) {
+        RobotArena old = arena;
+        newArena.setDoubleBuffered(doubleBuffered);
+        newArena.refreshFrame();
+        arena = newArena;
+        if (old != null && old != newArena) {
+            old.setThreads(1);  // shuts down the replaced arena's worker pool
+        }
+        KeyframeHistory h = history;
+        if (h != null) {
+            h.clear();  // the old run's past does not lead to the new arena
+            h.changed(newArena);
+        }
+    }
+
+    /**
+     * Sets the history to keep keyframes in, starting from the arena's current state.
+     * Only call this while stopped.
+     *
+     * @param newHistory the history, or null to keep none
+     */
+    public void setHistory(KeyframeHistory newHistory) {
+        history = newHistory;
+        if (newHistory != null) {
+            newHistory.clear();
+            newHistory.changed(arena);
+        }
+    }
+
+    /**
+     * Gets the history keyframes are kept in.
+     *
+     * @return the history, or null if none is kept
+     */
+    public KeyframeHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Takes the run back to an earlier tick, rebuilt from the history, and forgets the
+     * history after it. The past ticks are run again in the scheduler's tick mode, and the
+     * replaced arena's worker pool is shut down. Only call this while stopped.
+     *
+     * @param tick the tick to go back to
+     * @return the new arena at that tick, or null if the history does not reach back that far
+     */
+    public RobotArena rewind(long tick) {
+        KeyframeHistory h = history;
+        if (h == null || tick > arena.getTick()) {
+            return null;
+        }
+        RobotArena old = arena;
+        RobotArena past = h.restore(tick, old);
+        if (past == null) {
+            return null;
+        }
+        h.discardAfter(tick);
+        past.refreshFrame();
+        arena = past;
+        old.setThreads(1);  // shuts down the replaced arena's worker pool
+        return past;
+    }
+
+    /**
+     * Sets the tick rate.
+     *
+     * @param rate the ticks per second, 0 or less to tick as fast as possible
+     */
+    public void setTicksPerSecond(double rate) {
+        ticksPerSecond = rate;
+    }
+
+    /**
+     * Gets the tick rate.
+     *
+     * @return the ticks per second, 0 or less when ticking as fast as possible
+     */
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * Sets how many ticks may be run back to back to catch up after the thread fell behind.
+     * Any backlog beyond this is dropped, so a stall slows the simulation down instead of
+     * being followed by a burst of ticks.
+     *
+     * @param steps the maximum number of ticks per wake-up
+     */
+    public void setMaxStepsPerFrame(int steps) {
+        maxStepsPerFrame = Math.max(1, steps);
+    }
+
+    /**
+     * Checks whether the simulation thread is running.
+     *
+     * @return true if running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts ticking on a new simulation thread, if not already running.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::runLoop, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops ticking and waits for the simulation thread to finish its current tick.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        runCommands();
+    }
+
+    /**
+     * Runs a change to the arena on the simulation thread between two ticks, or straight
+     * away on the calling thread if the scheduler is stopped.
+     *
+     * @param command the change to make
+     */
+    public void execute(Runnable command) {
+        commands.add(command);
+        if (!running) {
+            synchronized (this) {
+                if (!running) {
+                    runCommands();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the queued commands and republishes the frame so readers see their effect.
+     */
+    private void runCommands() {
+        Runnable command;
+        boolean ran = false;
+        while ((command = commands.poll()) != null) {
+            command.run();
+            ran = true;
+        }
+        if (ran) {
+            arena.refreshFrame();
+            KeyframeHistory h = history;
+            if (h != null) {
+                h.changed(arena);
+            }
+        }
+    }
+
+    /**
+     * The simulation thread: runs commands and ticks, sleeping until the next tick is due.
+     */
+    private void runLoop() {
+        long next = System.nanoTime();
+        while (running) {
+            runCommands();
+            double rate = ticksPerSecond;
+            if (rate <= 0) {
+                tick();
+                next = System.nanoTime();
+                continue;
+            }
+            long period = (long) (1_000_000_000L / rate);
+            long now = System.nanoTime();
+            int steps = 0;
+            while (now - next >= 0 && steps < maxStepsPerFrame && running) {
+                tick();
+                next += period;
+                steps++;
+            }
+            if (now - next >= 0) {
+                next = now;  // too far behind, drop the backlog
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    /**
+     * Runs one tick, publishes its frame and keeps a keyframe if one is due.
+     */
+    private void tick() {
+        arena.updateRobots();
+        arena.refreshFrame();  // in-order ticks do not publish a frame by themselves
+        KeyframeHistory h = history;
+        if (h != null) {
+            h.tick(arena);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package consoleVersion1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnapshotWriter saves arenas without stopping the simulation. A save copies the arena's
+ * state into an ArenaSnapshot on the simulation thread, between two ticks, which only
+ * takes a copy of each robot's primitive fields. The snapshot is then encoded and written
+ * on a background thread while the simulation keeps ticking, and the returned future
+ * completes when it is on disk.
+ *
+ * Saves are written one at a time, in the order they were asked for. Each goes to a
+ * temporary file that then replaces the target, so a save that fails or is cut short
+ * leaves the previous file intact.
+ */
+public class SnapshotWriter implements AutoCloseable {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "snapshot-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Saves an arena that a scheduler is ticking. The state is captured at the next tick
+     * boundary, or straight away if the scheduler is stopped.
+     *
+     * @param scheduler  the scheduler ticking the arena
+     * @param arena      the arena to save
+     * @param viewWidth  the view width to store, or 0
+     * @param viewHeight the view height to store, or 0
+     * @param path       the file to write
+     * @return a future completed with the snapshot once it is written, or exceptionally
+     *         with an UncheckedIOException if writing failed
+     */
+    public CompletableFuture<ArenaSnapshot> save(SimulationScheduler scheduler, RobotArena arena,
+            int viewWidth, int viewHeight, Path path) {
+        CompletableFuture<ArenaSnapshot> captured = new CompletableFuture<>();
+        scheduler.execute(() -> {
+            try {
+                ArenaSnapshot snapshot = ArenaSnapshot.capture(arena);
+                snapshot.setViewSize(viewWidth, viewHeight);
+                captured.complete(snapshot);
+            } catch (RuntimeException e) {
+                captured.completeExceptionally(e);
+            }
+        });
+        return captured.thenCompose(snapshot -> write(snapshot, path));
+    }
+
+    /**
+     * Writes a snapshot that has already been captured, on the background thread.
+     *
+     * @param snapshot the snapshot
+     * @param path     the file to write
+     * @return a future completed with the snapshot once it is written, or exceptionally
+     *         with an UncheckedIOException if writing failed
+     */
+    public CompletableFuture<ArenaSnapshot> write(ArenaSnapshot snapshot, Path path) {
+        return CompletableFuture.supplyAsync(() -> {
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                snapshot.write(temp);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return snapshot;
+        }, executor);
+    }
+
+    /**
+     * Waits for the saves already asked for to finish, then stops the background thread.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
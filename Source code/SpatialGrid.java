@@ -0,0 +1,221 @@
+package consoleVersion1;
+
+import java.util.Arrays;
+
+/**
+ * SpatialGrid is a uniform grid of cells that buckets preys by position, so a predator
+ * only has to look at the cells around it instead of every robot in the arena.
+ * Entries are agent indices chained per cell with intrusive linked lists, so that an
+ * agent can change cell in constant time. The grid keeps its own copy of each entry's
+ * position, which lets it index both robot lists and primitive agent stores.
+ *
+ * Cells are stored in square chunks, and only the chunks that have held an entry since
+ * the last reset exist, numbered by a ChunkIndex. Empty parts of the arena cost nothing,
+ * so the grid's memory and reset time follow the occupied area, not the arena size.
+ */
+public class SpatialGrid {
+    private static final int CHUNK_BITS = 4;  // a chunk is 16 x 16 cells
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int CHUNK_CELLS = 1 << (2 * CHUNK_BITS);
+
+    private final double cellSize;
+    private int cols, rows;
+    private final ChunkIndex chunks = new ChunkIndex();
+    private int[] head = new int[0];    // first agent index in each cell of each chunk, -1 when empty
+    private int[] next = new int[0];    // next agent index in the same cell
+    private int[] prev = new int[0];    // previous agent index in the same cell
+    private int[] cellOf = new int[0];  // chunk and cell of each agent index, -1 when not in the grid
+    private double[] px = new double[0];
+    private double[] py = new double[0];
+
+    /**
+     * Constructs a grid with square cells of the given size.
+     *
+     * @param cellSize the side length of each cell, normally the detection range
+     */
+    public SpatialGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Empties the grid and sizes it for an arena and a number of agent indices.
+     *
+     * @param xSize    the width of the arena
+     * @param ySize    the height of the arena
+     * @param capacity the number of agent indices that may be inserted
+     */
+    public void reset(int xSize, int ySize, int capacity) {
+        cols = Math.max(1, (int) Math.ceil(xSize / cellSize));
+        rows = Math.max(1, (int) Math.ceil(ySize / cellSize));
+        chunks.clear();
+
+        if (cellOf.length < capacity) {
+            int newCapacity = Math.max(capacity, cellOf.length * 2);
+            next = new int[newCapacity];
+            prev = new int[newCapacity];
+            cellOf = new int[newCapacity];
+            px = new double[newCapacity];
+            py = new double[newCapacity];
+        }
+        Arrays.fill(cellOf, 0, capacity, -1);
+    }
+
+    /**
+     * Inserts an agent index at a position.
+     *
+     * @param index the agent index
+     * @param x     the x-coordinate
+     * @param y     the y-coordinate
+     */
+    public void insert(int index, double x, double y) {
+        px[index] = x;
+        py[index] = y;
+        link(index, cellIndex(x, y));
+    }
+
+    /**
+     * Moves an agent already in the grid to a new position, changing cell if needed.
+     * Indices that were never inserted are ignored.
+     *
+     * @param index the agent index
+     * @param x     the new x-coordinate
+     * @param y     the new y-coordinate
+     */
+    public void update(int index, double x, double y) {
+        int oldCell = cellOf[index];
+        if (oldCell < 0) {
+            return;
+        }
+        px[index] = x;
+        py[index] = y;
+        int newCell = cellIndex(x, y);
+        if (newCell != oldCell) {
+            unlink(index);
+            link(index, newCell);
+        }
+    }
+
+    /**
+     * Returns the x-coordinate stored for an entry.
+     *
+     * @param index the agent index
+     * @return the x-coordinate last inserted or updated
+     */
+    public double getX(int index) {
+        return px[index];
+    }
+
+    /**
+     * Returns the y-coordinate stored for an entry.
+     *
+     * @param index the agent index
+     * @return the y-coordinate last inserted or updated
+     */
+    public double getY(int index) {
+        return py[index];
+    }
+
+    /**
+     * Finds the lowest-indexed entry strictly within the range of a point. Picking the
+     * lowest index gives the same prey as a linear scan over the robot list.
+     *
+     * @param x     the x-coordinate of the point
+     * @param y     the y-coordinate of the point
+     * @param range the detection range
+     * @return the index of the entry, or -1 if none is in range
+     */
+    public int findFirstWithin(double x, double y, double range) {
+        int cx0 = clampCol((int) Math.floor((x - range) / cellSize));
+        int cx1 = clampCol((int) Math.floor((x + range) / cellSize));
+        int cy0 = clampRow((int) Math.floor((y - range) / cellSize));
+        int cy1 = clampRow((int) Math.floor((y + range) / cellSize));
+        double rangeSq = range * range;
+        int best = -1;
+        for (int ky = cy0 >> CHUNK_BITS; ky <= cy1 >> CHUNK_BITS; ky++) {
+            for (int kx = cx0 >> CHUNK_BITS; kx <= cx1 >> CHUNK_BITS; kx++) {
+                int chunk = chunks.get(kx, ky);
+                if (chunk < 0) {
+                    continue;  // nothing was ever inserted there
+                }
+                // The cells of the search box that lie in this chunk
+                int base = chunk << (2 * CHUNK_BITS);
+                int rowStart = Math.max(cy0, ky << CHUNK_BITS), rowEnd = Math.min(cy1, (ky << CHUNK_BITS) + CHUNK_MASK);
+                int colStart = Math.max(cx0, kx << CHUNK_BITS), colEnd = Math.min(cx1, (kx << CHUNK_BITS) + CHUNK_MASK);
+                for (int cy = rowStart; cy <= rowEnd; cy++) {
+                    for (int cx = colStart; cx <= colEnd; cx++) {
+                        for (int i = head[base + ((cy & CHUNK_MASK) << CHUNK_BITS) + (cx & CHUNK_MASK)]; i >= 0; i = next[i]) {
+                            if (best >= 0 && i > best) {
+                                continue;
+                            }
+                            double dx = px[i] - x;
+                            double dy = py[i] - y;
+                            if (dx * dx + dy * dy < rangeSq) {
+                                best = i;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of chunks that have held an entry since the last reset.
+     *
+     * @return the chunk count
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Calculates the cell containing a position, clamping positions outside the arena to the
+     * edge cells, and adds its chunk if needed.
+     */
+    private int cellIndex(double x, double y) {
+        int cx = clampCol((int) Math.floor(x / cellSize));
+        int cy = clampRow((int) Math.floor(y / cellSize));
+        int added = chunks.size();
+        int chunk = chunks.getOrAdd(cx >> CHUNK_BITS, cy >> CHUNK_BITS);
+        if (chunk == added) {
+            if (head.length < (chunk + 1) * CHUNK_CELLS) {
+                head = Arrays.copyOf(head, Math.max((chunk + 1) * CHUNK_CELLS, head.length * 2));
+            }
+            Arrays.fill(head, chunk * CHUNK_CELLS, (chunk + 1) * CHUNK_CELLS, -1);
+        }
+        return (chunk << (2 * CHUNK_BITS)) + ((cy & CHUNK_MASK) << CHUNK_BITS) + (cx & CHUNK_MASK);
+    }
+
+    private int clampCol(int cx) {
+        return cx < 0 ? 0 : (cx >= cols ? cols - 1 : cx);
+    }
+
+    private int clampRow(int cy) {
+        return cy < 0 ? 0 : (cy >= rows ? rows - 1 : cy);
+    }
+
+    private void link(int index, int cell) {
+        int first = head[cell];
+        next[index] = first;
+        prev[index] = -1;
+        if (first >= 0) {
+            prev[first] = index;
+        }
+        head[cell] = index;
+        cellOf[index] = cell;
+    }
+
+    private void unlink(int index) {
+        int cell = cellOf[index];
+        if (prev[index] >= 0) {
+            next[prev[index]] = next[index];
+        } else {
+            head[cell] = next[index];
+        }
+        if (next[index] >= 0) {
+            prev[next[index]] = prev[index];
+        }
+        cellOf[index] = -1;
+    }
+}
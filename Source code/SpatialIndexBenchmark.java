@@ -0,0 +1,66 @@
+package consoleVersion1;
+
+/**
+ * SpatialIndexBenchmark compares the tick cost of prey detection through the spatial grid
+ * against the linear scan over all robots, for growing populations at a fixed density,
+ * and reports the population at which the grid starts to win.
+ *
+ * Usage: java consoleVersion1.SpatialIndexBenchmark [ticks]
+ */
+public class SpatialIndexBenchmark {
+    private static final int[] POPULATIONS = {50, 100, 200, 500, 1000, 2000, 5000, 10000, 20000};
+    private static final double ROBOTS_PER_UNIT = 0.08;  // the default 25x25 arena with 50 robots
+    private static final double PREDATOR_FRACTION = 0.1;
+    private static final int REPEATS = 3;
+
+    /**
+     * Times a number of ticks on a freshly populated arena.
+     *
+     * @param population the number of robots to start with
+     * @param useGrid    true to detect prey through the spatial grid
+     * @param ticks      the number of ticks to time
+     * @return the mean time of one tick in nanoseconds
+     */
+    static double timeTicks(int population, boolean useGrid, int ticks) {
+        int side = (int) Math.ceil(Math.sqrt(population / ROBOTS_PER_UNIT));
+        int predators = (int) Math.round(population * PREDATOR_FRACTION);
+        RobotArena arena = new RobotArena(side, side);
+        arena.setSpatialIndexEnabled(useGrid);
+        arena.addRandomRobots(predators, population - predators);
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            arena.updateRobots();
+        }
+        return (System.nanoTime() - start) / (double) ticks;
+    }
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+
+        // Warm up both paths so the JIT has compiled them before timing
+        for (int i = 0; i < 5; i++) {
+            timeTicks(1000, false, ticks);
+            timeTicks(1000, true, ticks);
+        }
+
+        // The crossover is the smallest population from which the grid stays faster
+        int crossover = -1;
+        System.out.println(String.format("%10s %15s %15s %10s", "robots", "linear ns/tick", "grid ns/tick", "speedup"));
+        for (int population : POPULATIONS) {
+            double linear = Double.MAX_VALUE;
+            double grid = Double.MAX_VALUE;
+            for (int r = 0; r < REPEATS; r++) {
+                linear = Math.min(linear, timeTicks(population, false, ticks));
+                grid = Math.min(grid, timeTicks(population, true, ticks));
+            }
+            System.out.println(String.format("%10d %15.0f %15.0f %10.2f", population, linear, grid, linear / grid));
+            if (grid >= linear) {
+                crossover = -1;
+            } else if (crossover < 0) {
+                crossover = population;
+            }
+        }
+        System.out.println(crossover < 0 ? "Grid never faster in this range"
+                : "Grid faster from " + crossover + " robots");
+    }
+}
@@ -0,0 +1,124 @@
+package consoleVersion1;
+
+/**
+ * SpeciesTable holds the constants shared by every agent of a species, such as speed and
+ * body size, so that they are stored once instead of in every agent. It also holds the
+ * rule parameters: how far predators detect prey and how long prey survive before
+ * splitting. Each RobotArena and AgentStore has its own table, so runs side by side can
+ * use different values.
+ */
+public class SpeciesTable {
+    public static final int PREDATOR = 0;
+    public static final int PREY = 1;
+    public static final int COUNT = 2;
+
+    private static final String[] NAMES = {"Predator", "Prey"};
+
+    private final double[] speed = {0.5, 0.4};
+    private final double[] width = {1.0, 1.0};
+    private final double[] height = {0.5, 0.5};
+    private double detectionRange = Predator.DETECTION_RANGE;
+    private int splitThreshold = Prey.SPLIT_THRESHOLD;
+
+    /**
+     * Returns the name of a species as used in save files.
+     *
+     * @param species the species index
+     * @return the species name
+     */
+    public static String getName(int species) {
+        return NAMES[species];
+    }
+
+    /**
+     * Returns the species index of a robot.
+     *
+     * @param r the robot
+     * @return PREDATOR or PREY
+     */
+    public static int of(Robot r) {
+        return r instanceof Predator ? PREDATOR : PREY;
+    }
+
+    /**
+     * Gets the distance moved per tick by a species.
+     *
+     * @param species the species index
+     * @return the speed
+     */
+    public double getSpeed(int species) {
+        return speed[species];
+    }
+
+    /**
+     * Sets the distance moved per tick by a species.
+     *
+     * @param species the species index
+     * @param value   the speed
+     */
+    public void setSpeed(int species, double value) {
+        speed[species] = value;
+    }
+
+    /**
+     * Gets the body width of a species.
+     *
+     * @param species the species index
+     * @return the width
+     */
+    public double getWidth(int species) {
+        return width[species];
+    }
+
+    /**
+     * Gets the body height of a species.
+     *
+     * @param species the species index
+     * @return the height
+     */
+    public double getHeight(int species) {
+        return height[species];
+    }
+
+    /**
+     * Gets the distance within which a predator detects prey.
+     *
+     * @return the detection range
+     */
+    public double getDetectionRange() {
+        return detectionRange;
+    }
+
+    /**
+     * Sets the distance within which a predator detects prey.
+     *
+     * @param range the detection range, greater than 0
+     */
+    public void setDetectionRange(double range) {
+        if (!(range > 0)) {
+            throw new IllegalArgumentException("Detection range must be positive: " + range);
+        }
+        detectionRange = range;
+    }
+
+    /**
+     * Gets the number of ticks a prey survives before it splits.
+     *
+     * @return the split threshold
+     */
+    public int getSplitThreshold() {
+        return splitThreshold;
+    }
+
+    /**
+     * Sets the number of ticks a prey survives before it splits.
+     *
+     * @param ticks the split threshold, from 1 to Short.MAX_VALUE
+     */
+    public void setSplitThreshold(int ticks) {
+        if (ticks < 1 || ticks > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Split threshold out of range: " + ticks);
+        }
+        splitThreshold = ticks;
+    }
+}
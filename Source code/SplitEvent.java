@@ -0,0 +1,30 @@
+package consoleVersion1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * SplitEvent sums the prey splits of one tick.
+ */
+@Name("consoleVersion1.Split")
+@Label("Prey Splitting")
+@Category({"Ecosystem", "Tick"})
+@Description("Preys born in one tick")
+public class SplitEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("Births")
+    public int births;
+
+    @Label("Recycled")
+    @Description("Births that reused a pooled prey")
+    public int recycled;
+
+    @Label("Split Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long splitTime;
+}
@@ -0,0 +1,295 @@
+package consoleVersion1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SweepRunner looks for predator/prey settings that balance, by running every combination
+ * of parameter ranges as its own headless arena, spread over all cores, and printing one
+ * line per run.
+ *
+ * Usage: java consoleVersion1.SweepRunner [--predators R] [--preys R] [--split R] [--range R]
+ *        [--predator-speed R] [--prey-speed R] [--trees R] [--width N] [--height N]
+ *        [--ticks N] [--seed N] [--threads N] [--max-agents N]
+ *
+ * Each range R is a single value, FROM:TO, or FROM:TO:STEP, with a step of 1 by default.
+ * Every run uses the same seed, so runs differ only by their parameters. A run ticks a
+ * RobotArena in order, as the UI does, with its own SpeciesTable holding the split
+ * threshold, detection range and speeds. A TerminationMonitor watches its species counts,
+ * and the run stops early once it resolves, or once the agents pass --max-agents. The
+ * statistics are taken as the run goes, so no per-tick history is kept.
+ *
+ * For each run the table gives the tick the prey went extinct, or - if they survived; the
+ * survival time, which is that tick or the run length; the oscillation period of the prey
+ * count around its running mean, or - if it did not oscillate; the final and peak prey counts; and why the run
+ * stopped early, if it did.
+ */
+public class SweepRunner {
+    private double[] predators = {10};
+    private double[] preys = {50};
+    private double[] splitThresholds = {Prey.SPLIT_THRESHOLD};
+    private double[] detectionRanges = {Predator.DETECTION_RANGE};
+    private double[] predatorSpeeds = {0.5};
+    private double[] preySpeeds = {0.4};
+    private double[] trees = {2};
+    private int arenaWidth = 25;
+    private int arenaHeight = 25;
+    private int ticks = 10000;
+    private long seed = SimRandom.freshSeed();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxAgents = 1_000_000;  // a run stops once it passes this many agents
+
+    /**
+     * Parses the command line options, leaving defaults for any that are not given.
+     *
+     * @param args the command line arguments
+     */
+    public SweepRunner(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--predators": predators = range(value); break;
+                case "--preys": preys = range(value); break;
+                case "--split": splitThresholds = range(value); break;
+                case "--range": detectionRanges = range(value); break;
+                case "--predator-speed": predatorSpeeds = range(value); break;
+                case "--prey-speed": preySpeeds = range(value); break;
+                case "--trees": trees = range(value); break;
+                case "--width": arenaWidth = Integer.parseInt(value); break;
+                case "--height": arenaHeight = Integer.parseInt(value); break;
+                case "--ticks": ticks = Integer.parseInt(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                case "--threads": threads = Math.max(1, Integer.parseInt(value)); break;
+                case "--max-agents": maxAgents = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Parses a range: a single value, FROM:TO, or FROM:TO:STEP.
+     *
+     * @param spec the range
+     * @return the values in the range, in order
+     */
+    static double[] range(String spec) {
+        String[] parts = spec.split(":");
+        double from = Double.parseDouble(parts[0]);
+        double to = parts.length > 1 ? Double.parseDouble(parts[1]) : from;
+        double step = parts.length > 2 ? Double.parseDouble(parts[2]) : 1;
+        if (parts.length > 3 || !(step > 0) || to < from) {
+            throw new IllegalArgumentException("Bad range " + spec + ", expected FROM[:TO[:STEP]]");
+        }
+        int count = (int) Math.floor((to - from) / step + 1e-9) + 1;
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = from + i * step;
+        }
+        return values;
+    }
+
+    /**
+     * Params is one combination of the swept parameters.
+     */
+    static final class Params {
+        int predators, preys, splitThreshold, trees;
+        double detectionRange, predatorSpeed, preySpeed;
+    }
+
+    /**
+     * Result is what one run measured.
+     */
+    static final class Result {
+        final Params params;
+        int extinctionTick = -1;  // tick the prey died out, or -1
+        int survivalTicks;
+        double period = -1;       // oscillation period of the prey count, or -1
+        int finalPrey, peakPrey;
+        boolean overflowed;       // stopped at --max-agents
+        TerminationMonitor.Reason reason;  // why the run resolved, or null
+
+        Result(Params params) {
+            this.params = params;
+        }
+    }
+
+    /**
+     * Lists every combination of the parameter ranges.
+     *
+     * @return the combinations, varying the last parameter fastest
+     */
+    List<Params> combinations() {
+        List<Params> all = new ArrayList<>();
+        for (double pr : predators) {
+            for (double py : preys) {
+                for (double sp : splitThresholds) {
+                    for (double dr : detectionRanges) {
+                        for (double ps : predatorSpeeds) {
+                            for (double qs : preySpeeds) {
+                                for (double tr : trees) {
+                                    Params p = new Params();
+                                    p.predators = (int) pr;
+                                    p.preys = (int) py;
+                                    p.splitThreshold = (int) sp;
+                                    p.detectionRange = dr;
+                                    p.predatorSpeed = ps;
+                                    p.preySpeed = qs;
+                                    p.trees = (int) tr;
+                                    all.add(p);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Runs one combination to the end, to prey extinction, or to the agent limit.
+     *
+     * @param p the parameters
+     * @return the measurements
+     */
+    Result runOne(Params p) {
+        SpeciesTable species = new SpeciesTable();
+        species.setSplitThreshold(p.splitThreshold);
+        species.setDetectionRange(p.detectionRange);
+        species.setSpeed(SpeciesTable.PREDATOR, p.predatorSpeed);
+        species.setSpeed(SpeciesTable.PREY, p.preySpeed);
+
+        RobotArena arena = new RobotArena(arenaWidth, arenaHeight, seed);
+        arena.setSpeciesTable(species);
+        arena.addRandomObstacles(p.trees, 0.2, 0.2);
+        arena.addRandomRobots(p.predators, p.preys);
+        arena.setTerminationMonitor(new TerminationMonitor());
+
+        Result r = new Result(p);
+        Oscillation oscillation = new Oscillation();
+        int prey = arena.getPreyCount();
+        oscillation.add(0, prey);
+        while (arena.getTick() < ticks) {
+            arena.updateRobots();
+            prey = arena.getPreyCount();
+            oscillation.add(arena.getTick(), prey);
+            r.peakPrey = Math.max(r.peakPrey, prey);
+            r.reason = arena.getTermination();
+            if (r.reason != null) {
+                if (prey == 0) {
+                    r.extinctionTick = (int) arena.getTick();
+                }
+                break;
+            }
+            if (arena.getRobots().size() > maxAgents) {
+                r.overflowed = true;
+                break;
+            }
+        }
+        r.survivalTicks = r.extinctionTick >= 0 ? r.extinctionTick : ticks;  // a run that stopped early with prey left keeps them
+        r.finalPrey = prey;
+        r.period = oscillation.period();
+        return r;
+    }
+
+    /**
+     * Oscillation estimates the period of a population series from the spacing of its
+     * upward crossings of its mean so far, as the counts come in. A crossing only counts
+     * once the series has dipped 10% of the mean below it, so noise around the mean is not
+     * taken for oscillation.
+     */
+    static final class Oscillation {
+        private double sum;
+        private long count;
+        private boolean below;
+        private long first = -1, last = -1;
+        private int crossings;
+
+        /**
+         * Adds the population at the next tick.
+         *
+         * @param tick  the tick
+         * @param value the population
+         */
+        void add(long tick, int value) {
+            sum += value;
+            count++;
+            double mean = sum / count;
+            if (value < mean * 0.9) {
+                below = true;
+            } else if (below && value >= mean) {
+                below = false;
+                if (first < 0) {
+                    first = tick;
+                }
+                last = tick;
+                crossings++;
+            }
+        }
+
+        /**
+         * Returns the average ticks between upward crossings.
+         *
+         * @return the period, or -1 if there were fewer than three crossings
+         */
+        double period() {
+            return crossings < 3 ? -1 : (last - first) / (double) (crossings - 1);
+        }
+    }
+
+    /**
+     * Runs every combination on a pool of threads and prints the results table in
+     * combination order.
+     */
+    public void run() {
+        List<Params> all = combinations();
+        System.out.println("Sweeping " + all.size() + " runs of " + ticks + " ticks on "
+                + arenaWidth + "x" + arenaHeight + " with " + threads + " threads, seed " + seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Callable<Result>> runs = new ArrayList<>();
+            for (Params p : all) {
+                runs.add(() -> runOne(p));
+            }
+            List<Future<Result>> results = pool.invokeAll(runs);
+            System.out.println(String.format(Locale.ROOT, "%6s %6s %5s %5s %6s %6s %5s | %8s %8s %8s %8s %8s  %s",
+                    "pred", "prey", "split", "range", "pspeed", "yspeed", "trees",
+                    "extinct", "survival", "period", "final", "peak", "stopped"));
+            for (Future<Result> f : results) {
+                print(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A run failed: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println(String.format(Locale.ROOT, "Done in %.3f s", (System.nanoTime() - start) / 1e9));
+    }
+
+    private static void print(Result r) {
+        Params p = r.params;
+        System.out.println(String.format(Locale.ROOT, "%6d %6d %5d %5.2f %6.2f %6.2f %5d | %8s %8d %8s %8d %8d  %s",
+                p.predators, p.preys, p.splitThreshold, p.detectionRange, p.predatorSpeed, p.preySpeed, p.trees,
+                r.extinctionTick >= 0 ? String.valueOf(r.extinctionTick) : "-", r.survivalTicks,
+                r.period >= 0 ? String.format(Locale.ROOT, "%.0f", r.period) : "-",
+                r.finalPrey, r.peakPrey, r.overflowed ? "overflow" : r.reason != null ? r.reason.toString() : "-"));
+    }
+
+    /**
+     * Runs a sweep from the command line.
+     *
+     * @param args see the class comment
+     */
+    public static void main(String[] args) {
+        new SweepRunner(args).run();
+    }
+}
@@ -0,0 +1,174 @@
+package consoleVersion1;
+
+/**
+ * TerminationMonitor watches the species counts of a run tick by tick and says when the
+ * run has resolved, so batch runs can stop instead of ticking an outcome that can no
+ * longer change.
+ *
+ * Predators never die and prey only die when caught, so once either species is gone the
+ * outcome is fixed: with no prey the predators have nothing left to hunt, and with no
+ * predators the prey only multiply. A run that still has both is steady once its
+ * populations stop changing. The counts are summed over windows of ticks, and a window
+ * whose mean and standard deviation of each count are both within the tolerance of the
+ * previous window's, relative to that mean, agrees with it. A run is steady after enough
+ * windows in a row agree. As the window also takes in whole cycles of an oscillation, a
+ * run whose cycles have settled to a fixed amplitude is steady too, so the window should
+ * be longer than the cycles. Each tick costs a few additions.
+ */
+public class TerminationMonitor {
+    /**
+     * Reason is why a run was found to have resolved.
+     */
+    public enum Reason {
+        /** There are no robots left. */
+        EMPTY,
+        /** The prey are all gone, so the predators have nothing left to hunt. */
+        PREY_EXTINCT,
+        /** The predators are all gone, so nothing stops the prey multiplying. */
+        PREDATORS_EXTINCT,
+        /** Both populations have stopped changing from window to window. */
+        STEADY_STATE
+    }
+
+    /** Ticks per window by default. */
+    public static final int DEFAULT_WINDOW = 500;
+    /** Relative change allowed between agreeing windows by default. */
+    public static final double DEFAULT_TOLERANCE = 0.05;
+    /** Agreeing windows in a row needed for a steady state by default. */
+    public static final int DEFAULT_STABLE_WINDOWS = 3;
+
+    private final int window;
+    private final double tolerance;
+    private final int stableWindows;
+    private Reason reason;
+    private long resolvedTick = -1;
+    private int ticksInWindow;
+    private double predatorSum, predatorSquares, preySum, preySquares;
+    private double lastPredatorMean = -1, lastPredatorDeviation, lastPreyMean, lastPreyDeviation;
+    private int agreeing;
+
+    /**
+     * Constructs a monitor with the default window, tolerance and stable window count.
+     */
+    public TerminationMonitor() {
+        this(DEFAULT_WINDOW, DEFAULT_TOLERANCE, DEFAULT_STABLE_WINDOWS);
+    }
+
+    /**
+     * Constructs a monitor.
+     *
+     * @param window        the number of ticks per window, or 0 to only watch for extinctions
+     * @param tolerance     the change in mean and standard deviation allowed between agreeing
+     *                      windows, as a fraction of the mean
+     * @param stableWindows the number of agreeing windows in a row that make a steady state
+     */
+    public TerminationMonitor(int window, double tolerance, int stableWindows) {
+        this.window = Math.max(0, window);
+        this.tolerance = tolerance;
+        this.stableWindows = Math.max(1, stableWindows);
+    }
+
+    /**
+     * Adds a tick's counts. Once the run has resolved, further ticks are ignored.
+     *
+     * @param tick      the tick just run
+     * @param predators the number of predators after it
+     * @param prey      the number of prey after it
+     * @return the reason the run has resolved, or null if it has not
+     */
+    public Reason tick(long tick, int predators, int prey) {
+        if (reason != null) {
+            return reason;
+        }
+        if (predators == 0 && prey == 0) {
+            return resolve(Reason.EMPTY, tick);
+        } else if (prey == 0) {
+            return resolve(Reason.PREY_EXTINCT, tick);
+        } else if (predators == 0) {
+            return resolve(Reason.PREDATORS_EXTINCT, tick);
+        }
+        if (window == 0) {
+            return null;
+        }
+        predatorSum += predators;
+        predatorSquares += (double) predators * predators;
+        preySum += prey;
+        preySquares += (double) prey * prey;
+        if (++ticksInWindow == window) {
+            closeWindow();
+            if (agreeing >= stableWindows) {
+                return resolve(Reason.STEADY_STATE, tick);
+            }
+        }
+        return null;
+    }
+
+    private Reason resolve(Reason r, long tick) {
+        reason = r;
+        resolvedTick = tick;
+        return r;
+    }
+
+    /**
+     * Compares the window just filled with the one before it, and starts the next.
+     */
+    private void closeWindow() {
+        double predatorMean = predatorSum / window;
+        double predatorDeviation = deviation(predatorSquares, predatorMean);
+        double preyMean = preySum / window;
+        double preyDeviation = deviation(preySquares, preyMean);
+        if (lastPredatorMean >= 0
+                && agrees(predatorMean, predatorDeviation, lastPredatorMean, lastPredatorDeviation)
+                && agrees(preyMean, preyDeviation, lastPreyMean, lastPreyDeviation)) {
+            agreeing++;
+        } else {
+            agreeing = 0;
+        }
+        lastPredatorMean = predatorMean;
+        lastPredatorDeviation = predatorDeviation;
+        lastPreyMean = preyMean;
+        lastPreyDeviation = preyDeviation;
+        ticksInWindow = 0;
+        predatorSum = predatorSquares = preySum = preySquares = 0;
+    }
+
+    private double deviation(double squares, double mean) {
+        return Math.sqrt(Math.max(0, squares / window - mean * mean));
+    }
+
+    private boolean agrees(double mean, double deviation, double lastMean, double lastDeviation) {
+        double allowed = tolerance * Math.max(mean, lastMean);
+        return Math.abs(mean - lastMean) <= allowed && Math.abs(deviation - lastDeviation) <= allowed;
+    }
+
+    /**
+     * Forgets the windows so far, after the arena was changed between ticks. A resolved
+     * run stays resolved only if the change left it that way, which the next tick checks.
+     */
+    public void reset() {
+        reason = null;
+        resolvedTick = -1;
+        ticksInWindow = 0;
+        predatorSum = predatorSquares = preySum = preySquares = 0;
+        lastPredatorMean = -1;
+        agreeing = 0;
+    }
+
+    /**
+     * Returns why the run has resolved.
+     *
+     * @return the reason, or null if it has not
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Returns the tick the run was found to have resolved at.
+     *
+     * @return the tick, or -1 if it has not
+     */
+    public long getResolvedTick() {
+        return resolvedTick;
+    }
+}
@@ -2,36 +2,98 @@ package consoleVersion1;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 /**
  * TextFile class for handling file operations related to text files.
+ * Files are read and written as UTF-8 through FileChannels with large buffers, lines can be
+ * streamed with lines() or a for-each loop, and writing only flushes when the file is closed.
  * @author shsmchlr
  */
-public class TextFile {
+public class TextFile implements Iterable<String>, AutoCloseable {
+
+    /** System property naming the status file; status.txt in the working directory if unset. */
+    public static final String STATUS_FILE_PROPERTY = "ecosystem.statusFile";
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;  // characters buffered per read or write
 
     private String extension;          // extension of files that are opened/create, e.g., txt
     private String extDescription;     // description used for these, e.g., Text Files
+    private final Path path;           // file read and written
+    private final int bufferSize;      // size of the read and write buffers
     private String nameOfFile = "";    // name of file used in last operation
     private BufferedReader inBuffer;   // buffer used for reading files
     private BufferedWriter outBuffer;  // buffer used for writing files
-    private FileReader reader;         // used for reading files
     private String fileLine;           // string containing latest line from file
-    private static final String FILE_PATH = "C:/Users/Henry/Desktop/progamming/JAVA_DATA/Learning_Java/src/consoleVersion1/status.txt"; 
 
     /**
-     * Constructs a TextFile object with specified file type description and extension.
+     * Returns the status file used for reading and writing, from the ecosystem.statusFile
+     * system property.
+     * @return the path of the status file
+     */
+    static Path getStatusPath() {
+        return Paths.get(System.getProperty(STATUS_FILE_PROPERTY, "status.txt"));
+    }
+
+    /**
+     * Constructs a TextFile object with specified file type description and extension, for the status file.
      * @param ftypeD description of the file type
      * @param fExtension file extension
      */
     public TextFile(String ftypeD, String fExtension) {
+        this(getStatusPath());
         extDescription = ftypeD;  // remember these arguments
         extension = fExtension;
     }
 
+    /**
+     * Constructs a TextFile object for a given file, with the default buffer size.
+     * @param path the file to read or write
+     */
+    public TextFile(Path path) {
+        this(path, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a TextFile object for a given file.
+     * @param path the file to read or write
+     * @param bufferSize the number of characters to buffer when reading or writing
+     */
+    public TextFile(Path path, int bufferSize) {
+        this.path = path;
+        this.bufferSize = Math.max(1024, bufferSize);
+        extDescription = "Text files";
+        extension = "txt";
+    }
+
+    /**
+     * Returns the file this TextFile reads and writes.
+     * @return the path of the file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Opens the file as a channel for reading, for callers such as TextWorldLoader that map
+     * it rather than read it line by line. The caller closes the channel.
+     * @return the open channel
+     * @throws IOException if the file cannot be opened
+     */
+    FileChannel openChannel() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
     /**
      * Reports the name of the file used for reading/writing - empty string if open/create file failed.
      * @return name of the file used
@@ -41,32 +103,36 @@ public class TextFile {
     }
 
     /**
-     * Opens the fixed 'status.txt' file for reading.
+     * Opens the file for reading.
      * @return true if the file is successfully opened, false otherwise
      */
     public boolean openFile() {
-        nameOfFile = FILE_PATH;  // Use the fixed path for loading
-        File selFile = new File(nameOfFile); // Create a File object for the fixed file path
-        if (selFile.isFile()) {  // Check if the file exists
+        nameOfFile = "";
+        if (Files.isRegularFile(path)) {  // Check if the file exists
             try {
-                reader = new FileReader(selFile);  // Set up reader for the file
-                inBuffer = new BufferedReader(reader);  // Set up buffer for reading lines from file
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+                inBuffer = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), bufferSize), bufferSize);
+                nameOfFile = path.toString();
             } catch (IOException e) {
                 e.printStackTrace();  // If there's an issue, print the error
             }
         }
-        return nameOfFile.length() > 0;  // Return true if the file is found
+        return nameOfFile.length() > 0;  // Return true if the file was opened
     }
 
     /**
      * Closes the file which has been read.
      */
     void closeFile() {
+        if (inBuffer == null) {
+            return;
+        }
         try {
             inBuffer.close();  // Close the file
         } catch (IOException e) {
             e.printStackTrace();  // Report error if this didn't work
         }
+        inBuffer = null;
     }
 
     /**
@@ -92,28 +158,80 @@ public class TextFile {
         return fileLine;  // Just return fileLine
     }
 
+    /**
+     * Returns the remaining lines of the file opened by openFile(), read lazily. The file
+     * is closed when the stream is closed.
+     * @return the lines, without their line terminators
+     * @throws IllegalStateException if no file is open for reading
+     */
+    public Stream<String> lines() {
+        if (inBuffer == null) {
+            throw new IllegalStateException("No file is open for reading, call openFile() first");
+        }
+        return inBuffer.lines().onClose(this::closeFile);
+    }
+
+    /**
+     * Returns an iterator over the remaining lines of the file opened by openFile(), so
+     * that the file can be read with a for-each loop. The file is closed after the last line.
+     * @return the line iterator
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && inBuffer != null) {
+                    try {
+                        next = inBuffer.readLine();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    if (next == null) {
+                        closeFile();  // end of file
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String line = next;
+                next = null;
+                return line;
+            }
+        };
+    }
+
     /**
      * Reads all of the file, returning one string; each line separated by \n.
      * @return all content of the file as a single string
      */
     public String readAllFile() {
-        String ans = "";
+        StringBuilder ans = new StringBuilder();
         while (getNextline()) {  // While there's a line to read
-            ans = ans + nextLine() + "\n";  // Get it and add to the answer
+            ans.append(nextLine()).append('\n');  // Get it and add to the answer
         }
         closeFile();  // Close the file
-        return ans;
+        return ans.toString();
     }
 
     /**
-     * Creates a new file for writing (always saves to fixed location 'status.txt').
+     * Creates the file for writing, replacing any file already there.
      * @return true if the file is created successfully, false otherwise
      */
     public boolean createFile() {
-        nameOfFile = FILE_PATH;  // Use the fixed path for saving
-        File wFile = new File(nameOfFile);  // Create a File object for the fixed file path
+        nameOfFile = "";
         try {
-            outBuffer = new BufferedWriter(new FileWriter(wFile));  // Set up the output buffer
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            outBuffer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), bufferSize), bufferSize);
+            nameOfFile = path.toString();
         } catch (IOException e) {
             e.printStackTrace();  // If file creation fails, print the error
         }
@@ -121,7 +239,8 @@ public class TextFile {
     }
 
     /**
-     * Writes a string then newline to the file.
+     * Writes a string then newline to the file. Lines are buffered, and only reach the
+     * file when the buffer fills or the file is closed.
      * @param s the string to write
      */
     void putNextLine(String s) {
@@ -133,15 +252,50 @@ public class TextFile {
         }
     }
 
+    /**
+     * Writes each line of a sequence, then newline, to the created file and closes it.
+     * Unlike writeAllFile(), a failure to write, flush or close the file is thrown, so a
+     * save that did not reach the disk is never reported as done.
+     * @param lines the lines to write
+     * @throws IOException if the file cannot be written, flushed or closed
+     * @throws IllegalStateException if no file was created for writing
+     */
+    public void writeLines(Iterable<? extends CharSequence> lines) throws IOException {
+        if (outBuffer == null) {
+            throw new IllegalStateException("No file is open for writing, call createFile() first");
+        }
+        BufferedWriter out = outBuffer;
+        outBuffer = null;
+        try (out) {  // flushes and closes, throwing rather than printing any failure
+            for (CharSequence line : lines) {
+                out.append(line);
+                out.newLine();
+            }
+        }
+    }
+
     /**
      * Closes the file that has been written to.
      */
     void closeWriteFile() {
+        if (outBuffer == null) {
+            return;
+        }
         try {
-            outBuffer.close();  // Close it
+            outBuffer.close();  // Flush and close it
         } catch (IOException e) {
             e.printStackTrace();  // Print error
         }
+        outBuffer = null;
+    }
+
+    /**
+     * Closes the file, whether it was opened for reading or created for writing.
+     */
+    @Override
+    public void close() {
+        closeFile();
+        closeWriteFile();
     }
 
     /**
@@ -149,9 +303,14 @@ public class TextFile {
      * @param data the data to write to the file
      */
     public void writeAllFile(String data) {
-        String[] manyStrings = data.split("\n");  // Split data into lines
-        for (int ct = 0; ct < manyStrings.length; ct++) {  // For each line
-            putNextLine(manyStrings[ct]);  // Write it to the file
+        int start = 0;
+        while (start < data.length()) {  // For each line
+            int end = data.indexOf('\n', start);
+            if (end < 0) {
+                end = data.length();
+            }
+            putNextLine(data.substring(start, end));  // Write it to the file
+            start = end + 1;
         }
         closeWriteFile();  // Close the file after writing
     }
@@ -161,11 +320,13 @@ public class TextFile {
      * @param args command line arguments
      */
     public static void main(String[] args) {
-        TextFile tf = new TextFile("Text files", "txt");  // Create object looking for *.txt Text files
+        TextFile tf = args.length > 0 ? new TextFile(Paths.get(args[0])) : new TextFile("Text files", "txt");
 
         if (tf.openFile()) {  // Open file
             System.out.println("Reading from " + tf.usedFileName());
-            System.out.println(tf.readAllFile());  // Read whole file into str and print to console
+            for (String line : tf) {  // Stream the file line by line to the console
+                System.out.println(line);
+            }
         } else {
             System.out.println("No read file selected");
         }
@@ -0,0 +1,374 @@
+package consoleVersion1;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * TextWorldLoader reads the text save format, one "Predator: id x y angle",
+ * "Prey: id x y angle" or "Obstacle: x y width height" line per object after the
+ * "Canvas Size", "Arena Size" and "Seed" lines, using every core.
+ *
+ * The file is opened through a TextFile, memory-mapped and cut into chunks at line boundaries. Each chunk is parsed
+ * on its own thread straight from the mapped bytes into primitive columns, with
+ * DecimalParser, so no line or field Strings are made. The chunks are then merged in file
+ * order, building their robots in parallel too. Robots get consecutive new IDs and random
+ * streams split off the seed in file order, exactly as loading line by line would give.
+ *
+ * save() writes an arena in the same format through a TextFile.
+ */
+public class TextWorldLoader {
+    private static final int MIN_CHUNK = 1 << 20;     // smaller files are not worth splitting further
+    private static final int CHUNKS_PER_THREAD = 4;   // so that a slow chunk does not hold up the rest
+    private static final int MAX_LINE = 1 << 16;      // how far a chunk may read past its end to finish a line
+
+    private static final byte[] PREDATOR = ascii("Predator:");
+    private static final byte[] PREY = ascii("Prey:");
+    private static final byte[] OBSTACLE = ascii("Obstacle:");
+    private static final byte[] SEED = ascii("Seed:");
+    private static final byte[] CANVAS_SIZE = ascii("Canvas Size:");
+    private static final byte[] ARENA_SIZE = ascii("Arena Size:");
+
+    private final TextFile file;
+    private final int threads;
+    private double canvasWidth, canvasHeight;
+
+    /**
+     * Constructs a loader for a text save file.
+     *
+     * @param file    the file to load
+     * @param threads the number of threads to parse with
+     */
+    public TextWorldLoader(TextFile file, int threads) {
+        this.file = file;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Loads the file into a new arena.
+     *
+     * @return the arena
+     * @throws IOException if the file cannot be read or has no Arena Size line
+     * @throws NumberFormatException if a number in the file is malformed
+     */
+    public RobotArena load() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (FileChannel channel = file.openChannel()) {
+            long size = channel.size();
+            int chunkCount = (int) Math.max(1, Math.min((long) threads * CHUNKS_PER_THREAD, size / MIN_CHUNK));
+            List<Chunk> chunks = new ArrayList<>();
+            for (int c = 0; c < chunkCount; c++) {
+                chunks.add(new Chunk(size * c / chunkCount, size * (c + 1) / chunkCount));
+            }
+            List<Callable<Void>> parses = new ArrayList<>();
+            for (Chunk chunk : chunks) {
+                parses.add(() -> {
+                    chunk.parse(channel, size);
+                    return null;
+                });
+            }
+            runAll(pool, parses);
+            return merge(pool, chunks);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the canvas width from the Canvas Size line, or 0 if there was none.
+     *
+     * @return the canvas width
+     */
+    public double getCanvasWidth() {
+        return canvasWidth;
+    }
+
+    /**
+     * Returns the canvas height from the Canvas Size line, or 0 if there was none.
+     *
+     * @return the canvas height
+     */
+    public double getCanvasHeight() {
+        return canvasHeight;
+    }
+
+    /**
+     * Writes an arena in the text save format, streaming its lines into a file.
+     *
+     * @param arena        the arena
+     * @param canvasWidth  the canvas width for the Canvas Size line
+     * @param canvasHeight the canvas height for the Canvas Size line
+     * @param file         the file to write
+     * @throws IOException if the file cannot be created or written
+     */
+    public static void save(RobotArena arena, int canvasWidth, int canvasHeight, TextFile file) throws IOException {
+        if (!file.createFile()) {
+            throw new IOException("Cannot create the text save file");
+        }
+        Stream<CharSequence> lines = Stream.concat(Stream.concat(
+                Stream.<CharSequence>of("Canvas Size: " + canvasWidth + " " + canvasHeight,
+                        "Arena Size: " + arena.getXSize() + " " + arena.getYSize(),
+                        "Seed: " + arena.getSeed()),
+                arena.getRobots().stream().map(r -> (r instanceof Predator ? "Predator: " : "Prey: ")
+                        + r.getId() + " " + r.getX() + " " + r.getY() + " " + r.getAngle())),
+                arena.getObstacles().stream().map(o -> "Obstacle: " + o.getX() + " " + o.getY()
+                        + " " + o.getWidth() + " " + o.getHeight()));
+        file.writeLines(lines::iterator);
+    }
+
+    /**
+     * Combines the parsed chunks, in file order, into an arena. Later header lines win,
+     * as they did when each line was applied in turn.
+     */
+    private RobotArena merge(ForkJoinPool pool, List<Chunk> chunks) throws IOException {
+        int arenaWidth = -1, arenaHeight = -1;
+        long seed = SimRandom.freshSeed();
+        int robotCount = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.hasCanvasSize) {
+                canvasWidth = chunk.canvasWidth;
+                canvasHeight = chunk.canvasHeight;
+            }
+            if (chunk.hasArenaSize) {
+                arenaWidth = chunk.arenaWidth;
+                arenaHeight = chunk.arenaHeight;
+            }
+            if (chunk.hasSeed) {
+                seed = chunk.seed;
+            }
+            chunk.firstRobot = robotCount;
+            robotCount += chunk.robots;
+        }
+        if (arenaWidth < 0) {
+            throw new IOException(file.getPath() + " has no Arena Size line");
+        }
+
+        // Robot k gets ID firstId + k and the k-th stream split off the seed, as seedRobot would give it
+        Robot[] robots = new Robot[robotCount];
+        int firstId = Robot.allocateIds(robotCount);
+        long seedState = seed;
+        List<Callable<Void>> builds = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            builds.add(() -> {
+                chunk.build(robots, firstId, seedState);
+                return null;
+            });
+        }
+        runAll(pool, builds);
+
+        RobotArena arena = new RobotArena(arenaWidth, arenaHeight, seed);
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.obstacles; i++) {
+                arena.addObstacle(new Obstacle(chunk.obstacleX[i], chunk.obstacleY[i],
+                        chunk.obstacleWidth[i], chunk.obstacleHeight[i]));
+            }
+        }
+        for (Robot r : robots) {
+            arena.addRobot(r);
+        }
+        arena.resume(SimRandom.advance(seed, robotCount), 0);
+        return arena;
+    }
+
+    private static void runAll(ForkJoinPool pool, List<Callable<Void>> tasks) throws IOException {
+        try {
+            for (Future<Void> f : pool.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Loading was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Chunk is the part of the file whose lines start in [start, end), and the columns
+     * parsed from it.
+     */
+    private static final class Chunk {
+        private final long start, end;
+        private MappedByteBuffer buf;
+        private int pos;  // parse position in buf
+
+        private boolean hasCanvasSize, hasArenaSize, hasSeed;
+        private double canvasWidth, canvasHeight;
+        private int arenaWidth, arenaHeight;
+        private long seed;
+
+        private int robots = 0;
+        private int firstRobot;  // index of the chunk's first robot in the whole file
+        private byte[] species = new byte[64];
+        private double[] x = new double[64], y = new double[64], angle = new double[64];
+
+        private int obstacles = 0;
+        private double[] obstacleX = new double[8], obstacleY = new double[8];
+        private double[] obstacleWidth = new double[8], obstacleHeight = new double[8];
+
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Maps the chunk, with a byte before it to see whether a line starts at its
+         * first byte and enough after it to finish its last line, and parses its lines.
+         */
+        void parse(FileChannel channel, long fileSize) throws IOException {
+            long from = Math.max(0, start - 1);
+            long to = Math.min(fileSize, end + MAX_LINE);
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+            int limit = buf.limit();
+            int stop = (int) (end - from);  // lines starting at or after this belong to the next chunk
+            pos = 0;
+            if (start > 0) {
+                while (pos < limit && buf.get(pos) != '\n') {
+                    pos++;
+                }
+                pos++;  // the first line starting at or after start
+            }
+            while (pos < stop) {
+                int lineEnd = pos;
+                while (lineEnd < limit && buf.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                if (lineEnd == limit && to < fileSize) {
+                    throw new IOException("Line at byte " + (from + pos) + " is longer than " + MAX_LINE + " bytes");
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > pos && buf.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                parseLine(lineEnd);
+                pos = next;
+            }
+            buf = null;  // let the mapping go
+        }
+
+        private void parseLine(int lineEnd) {
+            if (startsWith(PREDATOR, lineEnd)) {
+                addRobot(SpeciesTable.PREDATOR, lineEnd);
+            } else if (startsWith(PREY, lineEnd)) {
+                addRobot(SpeciesTable.PREY, lineEnd);
+            } else if (startsWith(OBSTACLE, lineEnd)) {
+                if (obstacles == obstacleX.length) {
+                    int capacity = obstacles * 2;
+                    obstacleX = Arrays.copyOf(obstacleX, capacity);
+                    obstacleY = Arrays.copyOf(obstacleY, capacity);
+                    obstacleWidth = Arrays.copyOf(obstacleWidth, capacity);
+                    obstacleHeight = Arrays.copyOf(obstacleHeight, capacity);
+                }
+                obstacleX[obstacles] = nextDouble(lineEnd);
+                obstacleY[obstacles] = nextDouble(lineEnd);
+                obstacleWidth[obstacles] = nextDouble(lineEnd);
+                obstacleHeight[obstacles] = nextDouble(lineEnd);
+                obstacles++;
+            } else if (startsWith(SEED, lineEnd)) {
+                int from = nextField(lineEnd);
+                seed = DecimalParser.parseLong(buf, from, pos);
+                hasSeed = true;
+            } else if (startsWith(CANVAS_SIZE, lineEnd)) {
+                canvasWidth = nextDouble(lineEnd);
+                canvasHeight = nextDouble(lineEnd);
+                hasCanvasSize = true;
+            } else if (startsWith(ARENA_SIZE, lineEnd)) {
+                int from = nextField(lineEnd);
+                arenaWidth = (int) DecimalParser.parseLong(buf, from, pos);
+                from = nextField(lineEnd);
+                arenaHeight = (int) DecimalParser.parseLong(buf, from, pos);
+                hasArenaSize = true;
+            }
+        }
+
+        private void addRobot(int s, int lineEnd) {
+            if (robots == x.length) {
+                int capacity = robots * 2;
+                species = Arrays.copyOf(species, capacity);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                angle = Arrays.copyOf(angle, capacity);
+            }
+            nextField(lineEnd);  // the saved ID, replaced by a new one as before
+            species[robots] = (byte) s;
+            x[robots] = nextDouble(lineEnd);
+            y[robots] = nextDouble(lineEnd);
+            angle[robots] = nextDouble(lineEnd);
+            robots++;
+        }
+
+        /**
+         * Checks whether the line at pos starts with a tag, and moves pos past it if so.
+         */
+        private boolean startsWith(byte[] tag, int lineEnd) {
+            if (lineEnd - pos < tag.length) {
+                return false;
+            }
+            for (int i = 0; i < tag.length; i++) {
+                if (buf.get(pos + i) != tag[i]) {
+                    return false;
+                }
+            }
+            pos += tag.length;
+            return true;
+        }
+
+        /**
+         * Skips spaces and finds the next field of the line.
+         *
+         * @return the start of the field, which ends at pos
+         */
+        private int nextField(int lineEnd) {
+            while (pos < lineEnd && buf.get(pos) == ' ') {
+                pos++;
+            }
+            int from = pos;
+            while (pos < lineEnd && buf.get(pos) != ' ') {
+                pos++;
+            }
+            if (from == pos) {
+                throw new NumberFormatException("Missing field in line ending at byte " + lineEnd);
+            }
+            return from;
+        }
+
+        private double nextDouble(int lineEnd) {
+            int from = nextField(lineEnd);
+            return DecimalParser.parseDouble(buf, from, pos);
+        }
+
+        /**
+         * Builds this chunk's robots into their places in the file-wide array.
+         */
+        void build(Robot[] robotArray, int firstId, long seedState) {
+            for (int i = 0; i < robots; i++) {
+                int k = firstRobot + i;
+                Robot r = species[i] == SpeciesTable.PREDATOR
+                        ? new Predator(firstId + k, x[i], y[i], angle[i])
+                        : new Prey(firstId + k, x[i], y[i], angle[i]);
+                r.setRandomState(SimRandom.mix(SimRandom.advance(seedState, k + 1L)));
+                robotArray[k] = r;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package consoleVersion1;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * TickEvent is the Flight Recorder event for one RobotArena.updateRobots() call. Its
+ * duration is the whole tick, split into the time spent in each phase.
+ */
+@Name("consoleVersion1.Tick")
+@Label("Arena Tick")
+@Category({"Ecosystem", "Tick"})
+@Description("One call of RobotArena.updateRobots")
+public class TickEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    public long tick;
+
+    @Label("Mode")
+    @Description("in-order, phased or double-buffered")
+    public String mode;
+
+    @Label("Threads")
+    public int threads;
+
+    @Label("Agents")
+    @Description("Robots at the start of the tick")
+    public int agents;
+
+    @Label("Births")
+    public int births;
+
+    @Label("Deaths")
+    public int deaths;
+
+    @Label("Movement Time")
+    @Description("Moving robots and maintaining the prey index")
+    @Timespan(Timespan.NANOSECONDS)
+    public long moveTime;
+
+    @Label("Detection Time")
+    @Description("Predators searching for prey")
+    @Timespan(Timespan.NANOSECONDS)
+    public long detectionTime;
+
+    @Label("Split Time")
+    @Description("Creating or recycling newborn preys")
+    @Timespan(Timespan.NANOSECONDS)
+    public long splitTime;
+
+    @Label("Compaction Time")
+    @Description("Removing eaten preys and appending births")
+    @Timespan(Timespan.NANOSECONDS)
+    public long compactionTime;
+}
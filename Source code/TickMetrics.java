@@ -0,0 +1,243 @@
+package consoleVersion1;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * TickMetrics records what each RobotArena tick did: how long it took, how many agents it
+ * updated, and how many were born and died. Tick durations go into a log-linear histogram
+ * with eight sub-buckets per power of two, so percentiles are within 12.5% of the true value.
+ *
+ * Per-tick figures cost a few field updates per tick. Prey detection searches and obstacle
+ * collision searches happen once per robot, so they are only counted while detailed
+ * counting is switched on, for example from JConsole, and then use LongAdders so that
+ * worker threads do not contend. A search counts once however many candidates it looks at.
+ */
+public class TickMetrics implements TickMetricsMBean {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private volatile long ticks = 0;
+    private volatile long totalNanos = 0;
+    private volatile long maxNanos = 0;
+    private volatile int agentsLastTick = 0;
+    private volatile long agentUpdates = 0;
+    private volatile long births = 0;
+    private volatile long deaths = 0;
+    private final LongAdder detectionSearches = new LongAdder();
+    private final LongAdder collisionSearches = new LongAdder();
+    private volatile boolean detailedCounting = false;
+    private ObjectName registeredName;
+
+    /**
+     * Records a finished tick. Only the thread running the ticks calls this.
+     *
+     * @param nanos  the duration of the tick
+     * @param agents the number of agents updated
+     * @param born   the number of preys born
+     * @param died   the number of preys removed
+     */
+    void recordTick(long nanos, int agents, int born, int died) {
+        histogram.incrementAndGet(bucketOf(nanos));
+        ticks++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+        agentsLastTick = agents;
+        agentUpdates += agents;
+        births += born;
+        deaths += died;
+    }
+
+    /**
+     * Counts a prey detection search, one findPreyInRange() call, if detailed counting is on.
+     */
+    void countDetectionSearch() {
+        if (detailedCounting) {
+            detectionSearches.increment();
+        }
+    }
+
+    /**
+     * Counts an obstacle collision search, one findCollidingObstacle() call, if detailed
+     * counting is on.
+     */
+    void countCollisionSearch() {
+        if (detailedCounting) {
+            collisionSearches.increment();
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, replacing any earlier
+     * registration under the same name.
+     *
+     * @param name the name shown for this arena
+     */
+    public synchronized void register(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("consoleVersion1:type=RobotArena,name=" + ObjectName.quote(name));
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+            registeredName = objectName;
+        } catch (JMException e) {
+            System.err.println("Could not register metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if registered.
+     */
+    public synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            System.err.println("Could not unregister metrics: " + e.getMessage());
+        }
+        registeredName = null;
+    }
+
+    @Override
+    public long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public double getTickP50Micros() {
+        return percentileNanos(0.50) / 1e3;
+    }
+
+    @Override
+    public double getTickP99Micros() {
+        return percentileNanos(0.99) / 1e3;
+    }
+
+    @Override
+    public double getTickMaxMicros() {
+        return maxNanos / 1e3;
+    }
+
+    @Override
+    public double getTickMeanMicros() {
+        long n = ticks;
+        return n == 0 ? 0 : totalNanos / 1e3 / n;
+    }
+
+    @Override
+    public int getAgentsLastTick() {
+        return agentsLastTick;
+    }
+
+    @Override
+    public long getAgentUpdates() {
+        return agentUpdates;
+    }
+
+    @Override
+    public long getBirths() {
+        return births;
+    }
+
+    @Override
+    public long getDeaths() {
+        return deaths;
+    }
+
+    @Override
+    public long getDetectionSearches() {
+        return detectionSearches.sum();
+    }
+
+    @Override
+    public long getCollisionSearches() {
+        return collisionSearches.sum();
+    }
+
+    @Override
+    public boolean isDetailedCounting() {
+        return detailedCounting;
+    }
+
+    @Override
+    public void setDetailedCounting(boolean enabled) {
+        detailedCounting = enabled;
+    }
+
+    /**
+     * Clears every figure. Ticks running at the same time may be partly lost.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+        ticks = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        agentsLastTick = 0;
+        agentUpdates = 0;
+        births = 0;
+        deaths = 0;
+        detectionSearches.reset();
+        collisionSearches.reset();
+    }
+
+    /**
+     * Estimates a percentile of the tick durations from the histogram.
+     *
+     * @param fraction the percentile as a fraction, for example 0.99
+     * @return the upper bound of the bucket holding the percentile, in nanoseconds
+     */
+    public long percentileNanos(double fraction) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += histogram.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Finds the bucket of a value: values below SUB_BUCKETS get one bucket each, larger
+     * values are split by their highest set bit and the SUB_BITS bits below it.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
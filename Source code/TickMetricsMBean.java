@@ -0,0 +1,36 @@
+package consoleVersion1;
+
+/**
+ * TickMetricsMBean is the management interface of TickMetrics, as shown by JConsole or
+ * VisualVM under consoleVersion1:type=RobotArena,name="NAME", with the name given to
+ * TickMetrics.register().
+ */
+public interface TickMetricsMBean {
+    long getTicks();
+
+    double getTickP50Micros();
+
+    double getTickP99Micros();
+
+    double getTickMaxMicros();
+
+    double getTickMeanMicros();
+
+    int getAgentsLastTick();
+
+    long getAgentUpdates();
+
+    long getBirths();
+
+    long getDeaths();
+
+    long getDetectionSearches();
+
+    long getCollisionSearches();
+
+    boolean isDetailedCounting();
+
+    void setDetailedCounting(boolean enabled);
+
+    void reset();
+}
@@ -14,6 +14,9 @@ import java.util.ArrayList;
  */
 public class WhiskerRobot {
     protected double x, y, radius, whiskerLength, angle;
+    protected double dirX, dirY;  // unit vector along angle, recomputed only when the angle changes
+    private static final double WHISKER_COS = Math.cos(Math.toRadians(22.5));
+    private static final double WHISKER_SIN = Math.sin(Math.toRadians(22.5));
     protected static ArrayList<WhiskerRobot> robots = new ArrayList<>();
     public boolean isMoving = false;
     protected static ArrayList<Rectangle> obstacles = new ArrayList<>();
@@ -35,7 +38,18 @@ public class WhiskerRobot {
         this.y = y;
         this.radius = radius;
         this.whiskerLength = whiskerLength * 0.7;
-        this.angle = angle;
+        setAngle(angle);
+    }
+
+    /**
+     * Sets the angle of the robot and recomputes its direction vector.
+     *
+     * @param newAngle the new angle in degrees
+     */
+    private void setAngle(double newAngle) {
+        angle = newAngle;
+        dirX = FastTrig.cosDeg(newAngle);
+        dirY = FastTrig.sinDeg(newAngle);
     }
 
     /**
@@ -111,15 +125,21 @@ public class WhiskerRobot {
      * @return an ArrayList of Line objects representing the whisker lines
      */
     private ArrayList<Line> getWhiskerLine() {
-        double rx1 = this.x + (radius * 0.6) * Math.cos(Math.toRadians(angle + 22.5));
-        double ry1 = this.y + (radius * 0.6) * Math.sin(Math.toRadians(angle + 22.5));
-        double rx2 = this.x + (radius + whiskerLength) * Math.cos(Math.toRadians(angle + 22.5));
-        double ry2 = this.y + (radius + whiskerLength) * Math.sin(Math.toRadians(angle + 22.5));
-
-        double lx1 = this.x + (radius * 0.6) * Math.cos(Math.toRadians(angle - 22.5));
-        double ly1 = this.y + (radius * 0.6) * Math.sin(Math.toRadians(angle - 22.5));
-        double lx2 = this.x + (radius + whiskerLength) * Math.cos(Math.toRadians(angle - 22.5));
-        double ly2 = this.y + (radius + whiskerLength) * Math.sin(Math.toRadians(angle - 22.5));
+        // Rotate the direction vector by +/- 22.5 degrees for the two whiskers
+        double rightX = dirX * WHISKER_COS - dirY * WHISKER_SIN;
+        double rightY = dirY * WHISKER_COS + dirX * WHISKER_SIN;
+        double leftX = dirX * WHISKER_COS + dirY * WHISKER_SIN;
+        double leftY = dirY * WHISKER_COS - dirX * WHISKER_SIN;
+
+        double rx1 = this.x + (radius * 0.6) * rightX;
+        double ry1 = this.y + (radius * 0.6) * rightY;
+        double rx2 = this.x + (radius + whiskerLength) * rightX;
+        double ry2 = this.y + (radius + whiskerLength) * rightY;
+
+        double lx1 = this.x + (radius * 0.6) * leftX;
+        double ly1 = this.y + (radius * 0.6) * leftY;
+        double lx2 = this.x + (radius + whiskerLength) * leftX;
+        double ly2 = this.y + (radius + whiskerLength) * leftY;
 
         Line rightWhisker = new Line(rx1, ry1, rx2, ry2);
         Line leftWhisker = new Line(lx1, ly1, lx2, ly2);
@@ -155,9 +175,7 @@ public class WhiskerRobot {
 
             for (Rectangle obstacle : obstacles) {
                 if (lineIntersectsRectangle(whisker, obstacle)) {
-                    boolean isHorizontalCollision =
-                            Math.abs(Math.cos(Math.toRadians(angle))) >
-                                    Math.abs(Math.sin(Math.toRadians(angle)));
+                    boolean isHorizontalCollision = Math.abs(dirX) > Math.abs(dirY);
                     handleCollision(isHorizontalCollision);
                     return;
                 }
@@ -173,8 +191,10 @@ public class WhiskerRobot {
     private void handleCollision(boolean isHorizontalCollision) {
         if (isHorizontalCollision) {
             angle = 180 - angle;
+            dirX = -dirX;
         } else {
             angle = -angle;
+            dirY = -dirY;
         }
         angle = (angle + 360) % 360;
     }
@@ -225,8 +245,7 @@ public class WhiskerRobot {
      * @param deltaAngle the angle to turn
      */
     public void turn(double deltaAngle) {
-        this.angle += deltaAngle;
-        this.angle = this.angle % 360;
+        setAngle((this.angle + deltaAngle) % 360);
     }
 
     /**
@@ -267,16 +286,16 @@ public class WhiskerRobot {
 
         if (!hasCollision) {
             if (treasurePosition != null && isWithinDetectionRadius(treasurePosition[0], treasurePosition[1])) {
-                angle = calculateAngleToTarget(treasurePosition[0], treasurePosition[1]);
+                setAngle(calculateAngleToTarget(treasurePosition[0], treasurePosition[1]));
             } else if (bombPosition != null && isWithinDetectionRadius(bombPosition[0], bombPosition[1])) {
-                angle = calculateAngleToTarget(bombPosition[0], bombPosition[1]);
+                setAngle(calculateAngleToTarget(bombPosition[0], bombPosition[1]));
             }
         }
 
         if (isMoving) {
             double speedFactor = 3.5;
-            double newX = x + Math.cos(Math.toRadians(angle)) * speedFactor;
-            double newY = y + Math.sin(Math.toRadians(angle)) * speedFactor;
+            double newX = x + dirX * speedFactor;
+            double newY = y + dirY * speedFactor;
 
             if (treasurePosition != null) {
                 double distToTreasure = Math.sqrt(Math.pow(newX - treasurePosition[0], 2) +
@@ -327,19 +346,19 @@ public class WhiskerRobot {
         double wheelLength = scaledRadius * 0.8;
         double wheelOffset = scaledRadius * 1.2;
 
-        double leftWheelMidX = this.x - wheelOffset * Math.sin(Math.toRadians(angle));
-        double leftWheelMidY = this.y + wheelOffset * Math.cos(Math.toRadians(angle));
-        double leftWheelStartX = leftWheelMidX - (wheelLength/2) * Math.cos(Math.toRadians(angle));
-        double leftWheelStartY = leftWheelMidY - (wheelLength/2) * Math.sin(Math.toRadians(angle));
-        double leftWheelEndX = leftWheelMidX + (wheelLength/2) * Math.cos(Math.toRadians(angle));
-        double leftWheelEndY = leftWheelMidY + (wheelLength/2) * Math.sin(Math.toRadians(angle));
+        double leftWheelMidX = this.x - wheelOffset * dirY;
+        double leftWheelMidY = this.y + wheelOffset * dirX;
+        double leftWheelStartX = leftWheelMidX - (wheelLength/2) * dirX;
+        double leftWheelStartY = leftWheelMidY - (wheelLength/2) * dirY;
+        double leftWheelEndX = leftWheelMidX + (wheelLength/2) * dirX;
+        double leftWheelEndY = leftWheelMidY + (wheelLength/2) * dirY;
     
-        double rightWheelMidX = this.x + wheelOffset * Math.sin(Math.toRadians(angle));
-        double rightWheelMidY = this.y - wheelOffset * Math.cos(Math.toRadians(angle));
-        double rightWheelStartX = rightWheelMidX - (wheelLength / 2) * Math.cos(Math.toRadians(angle));
-        double rightWheelStartY = rightWheelMidY - (wheelLength / 2) * Math.sin(Math.toRadians(angle));
-        double rightWheelEndX = rightWheelMidX + (wheelLength / 2) * Math.cos(Math.toRadians(angle));
-        double rightWheelEndY = rightWheelMidY + (wheelLength / 2) * Math.sin(Math.toRadians(angle));
+        double rightWheelMidX = this.x + wheelOffset * dirY;
+        double rightWheelMidY = this.y - wheelOffset * dirX;
+        double rightWheelStartX = rightWheelMidX - (wheelLength / 2) * dirX;
+        double rightWheelStartY = rightWheelMidY - (wheelLength / 2) * dirY;
+        double rightWheelEndX = rightWheelMidX + (wheelLength / 2) * dirX;
+        double rightWheelEndY = rightWheelMidY + (wheelLength / 2) * dirY;
 
         gc.strokeLine(leftWheelStartX, leftWheelStartY, leftWheelEndX, leftWheelEndY);
         gc.strokeLine(rightWheelStartX, rightWheelStartY, rightWheelEndX, rightWheelEndY);
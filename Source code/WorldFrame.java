@@ -0,0 +1,235 @@
+package consoleVersion1;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * WorldFrame is a frozen copy of the robots' positions, and of the obstacles, at the end of one tick. The arena
+ * reads the previous frame while it computes the next one, and other threads such as the
+ * renderer can read a published frame without locking.
+ *
+ * A frame is reused two ticks after it was published. Readers that may be that slow take
+ * getTick() before reading and call isUnchanged(tick) afterwards to check that the frame
+ * was not overwritten in the meantime, or copy it with copyTo(), which also notices a frame
+ * rewritten for the same tick, as happens when the arena is changed between ticks.
+ */
+public class WorldFrame {
+    private volatile long tick = -1;  // -1 while the frame is being written
+    private volatile long sequence = 0;  // odd while the frame is being written
+    private int size = 0;
+    private int predatorCount = 0;
+    private int[] id = new int[0];
+    private byte[] species = new byte[0];
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] angle = new double[0];
+    private Obstacle[] obstacles = new Obstacle[0];
+    private int obstacleVersion = -1;  // version of the arena's obstacle list copied into obstacles
+
+    /**
+     * Copies the state of a list of robots into the frame. Obstacles are only copied
+     * when the arena's obstacle list has changed since this frame last copied it.
+     *
+     * @param robots       the robots to copy, in arena order
+     * @param obstacleList the obstacles of the arena
+     * @param version      the arena's obstacle list version
+     * @param frameTick    the tick the state belongs to
+     */
+    void capture(ArrayList<Robot> robots, ArrayList<Obstacle> obstacleList, int version, long frameTick) {
+        tick = -1;
+        sequence++;
+        VarHandle.storeStoreFence();
+        int n = robots.size();
+        if (x.length < n) {
+            int capacity = Math.max(n, x.length * 2);
+            id = Arrays.copyOf(id, capacity);
+            species = Arrays.copyOf(species, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            angle = Arrays.copyOf(angle, capacity);
+        }
+        int predators = 0;
+        for (int i = 0; i < n; i++) {
+            Robot r = robots.get(i);
+            int s = SpeciesTable.of(r);
+            if (s == SpeciesTable.PREDATOR) {
+                predators++;
+            }
+            id[i] = r.getId();
+            species[i] = (byte) s;
+            x[i] = r.getX();
+            y[i] = r.getY();
+            angle[i] = r.getAngle();
+        }
+        size = n;
+        predatorCount = predators;
+        if (version != obstacleVersion) {
+            obstacles = obstacleList.toArray(new Obstacle[0]);
+            obstacleVersion = version;
+        }
+        tick = frameTick;
+        sequence++;
+    }
+
+    /**
+     * Copies the frame into another one, for a reader on another thread that needs a state
+     * that stays put while it uses it.
+     *
+     * @param target the frame to copy into, owned by the reader
+     * @return true if the copy holds one whole published state, false if the frame was
+     *         being written meanwhile, in which case the target should not be used
+     */
+    public boolean copyTo(WorldFrame target) {
+        long readSequence = sequence;
+        long readTick = tick;
+        if ((readSequence & 1) != 0 || readTick < 0) {
+            return false;
+        }
+        // Take the arrays once, and stay within them, as a writer may be replacing them
+        int[] fromId = id;
+        byte[] fromSpecies = species;
+        double[] fromX = x, fromY = y, fromAngle = angle;
+        int n = Math.min(size, Math.min(Math.min(fromId.length, fromSpecies.length),
+                Math.min(fromX.length, Math.min(fromY.length, fromAngle.length))));
+        if (target.x.length < n) {
+            target.id = new int[n];
+            target.species = new byte[n];
+            target.x = new double[n];
+            target.y = new double[n];
+            target.angle = new double[n];
+        }
+        System.arraycopy(fromId, 0, target.id, 0, n);
+        System.arraycopy(fromSpecies, 0, target.species, 0, n);
+        System.arraycopy(fromX, 0, target.x, 0, n);
+        System.arraycopy(fromY, 0, target.y, 0, n);
+        System.arraycopy(fromAngle, 0, target.angle, 0, n);
+        int predators = predatorCount;
+        Obstacle[] fromObstacles = obstacles;
+        VarHandle.loadLoadFence();
+        if (sequence != readSequence) {
+            return false;
+        }
+        target.size = n;
+        target.predatorCount = predators;
+        target.obstacles = fromObstacles;
+        target.tick = readTick;
+        return true;
+    }
+
+    /**
+     * Returns the tick the frame belongs to, or -1 while it is being written.
+     *
+     * @return the tick of the frame
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Checks that the frame still holds the tick read before reading its contents.
+     *
+     * @param readTick the value of getTick() taken before reading
+     * @return true if everything read since then belongs to that tick
+     */
+    public boolean isUnchanged(long readTick) {
+        VarHandle.loadLoadFence();
+        return readTick >= 0 && tick == readTick;
+    }
+
+    /**
+     * Returns the number of robots in the frame.
+     *
+     * @return the number of robots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of predators in the frame.
+     *
+     * @return the number of predators
+     */
+    public int getPredatorCount() {
+        return predatorCount;
+    }
+
+    /**
+     * Returns the number of preys in the frame.
+     *
+     * @return the number of preys
+     */
+    public int getPreyCount() {
+        return size - predatorCount;
+    }
+
+    /**
+     * Returns the number of obstacles in the frame.
+     *
+     * @return the number of obstacles
+     */
+    public int getObstacleCount() {
+        return obstacles.length;
+    }
+
+    /**
+     * Returns an obstacle of the frame.
+     *
+     * @param i the obstacle index
+     * @return the obstacle
+     */
+    public Obstacle getObstacle(int i) {
+        return obstacles[i];
+    }
+
+    /**
+     * Returns the ID of a robot.
+     *
+     * @param i the robot index
+     * @return the robot ID
+     */
+    public int getId(int i) {
+        return id[i];
+    }
+
+    /**
+     * Returns the species of a robot.
+     *
+     * @param i the robot index
+     * @return the species index
+     */
+    public int getSpecies(int i) {
+        return species[i];
+    }
+
+    /**
+     * Returns the x-coordinate of a robot.
+     *
+     * @param i the robot index
+     * @return the x-coordinate
+     */
+    public double getX(int i) {
+        return x[i];
+    }
+
+    /**
+     * Returns the y-coordinate of a robot.
+     *
+     * @param i the robot index
+     * @return the y-coordinate
+     */
+    public double getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * Returns the angle of a robot.
+     *
+     * @param i the robot index
+     * @return the angle in degrees
+     */
+    public double getAngle(int i) {
+        return angle[i];
+    }
+}
@@ -0,0 +1,72 @@
+package consoleVersion1;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CollisionBenchmark compares a robot's obstacle check done as a linear scan with
+ * Obstacle.isColliding against the arena's baked obstacle grid, for one query per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int QUERIES = 4096;
+
+    @Param({"10", "1000", "10000"})
+    public int obstacles;
+
+    @Param({"1000"})
+    public int arenaSide;
+
+    private RobotArena arena;
+    private final double[] qx = new double[QUERIES];
+    private final double[] qy = new double[QUERIES];
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        arena = new RobotArena(arenaSide, arenaSide, 1);
+        arena.addRandomObstacles(obstacles, 1.0, 1.0);
+        SimRandom random = new SimRandom(2);
+        for (int i = 0; i < QUERIES; i++) {
+            qx[i] = random.nextDouble() * arenaSide;
+            qy[i] = random.nextDouble() * arenaSide;
+        }
+        arena.findCollidingObstacle(0, 0, 1, 1);  // bake outside the measurement
+    }
+
+    @Benchmark
+    public Obstacle linearScan() {
+        int i = next++ & (QUERIES - 1);
+        ArrayList<Obstacle> list = arena.getObstacles();
+        for (int k = 0; k < list.size(); k++) {
+            Obstacle o = list.get(k);
+            if (o.isColliding(qx[i], qy[i], 1.0, 0.5)) {
+                return o;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Obstacle obstacleGrid() {
+        int i = next++ & (QUERIES - 1);
+        return arena.findCollidingObstacle(qx[i], qy[i], 1.0, 0.5);
+    }
+}
@@ -0,0 +1,70 @@
+package consoleVersion1;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TickBenchmark measures RobotArena.updateRobots() in ticks per second. The arena is
+ * rebuilt from the same seed before every iteration, so each iteration starts from the
+ * same population and births and deaths only drift it within one iteration.
+ *
+ * Run with -prof gc to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int population;
+
+    @Param({"0.1"})
+    public double predatorFraction;
+
+    @Param({"0", "1000"})
+    public int obstacles;
+
+    /** Side of the square arena, 0 to size it for 0.08 robots per unit square. */
+    @Param({"0"})
+    public int arenaSide;
+
+    /** Run phased ticks instead of in-order ones. Only phased ticks use more than one thread. */
+    @Param({"false"})
+    public boolean phased;
+
+    @Param({"1"})
+    public int threads;
+
+    private RobotArena arena;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        int side = arenaSide > 0 ? arenaSide : (int) Math.ceil(Math.sqrt(population / 0.08));
+        int predators = (int) Math.round(population * predatorFraction);
+        arena = new RobotArena(side, side, 1);
+        arena.addRandomObstacles(obstacles, 0.2, 0.2);
+        arena.addRandomRobots(predators, population - predators);
+        arena.setPhased(phased);
+        arena.setThreads(threads);
+    }
+
+    @Benchmark
+    public RobotArena tick() {
+        arena.updateRobots();
+        return arena;
+    }
+}
@@ -0,0 +1,64 @@
+package consoleVersion1;
+
+import java.util.concurrent.TimeUnit;
+
+import javafx.scene.shape.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WhiskerBenchmark measures the geometry behind the Mode 2 render loop: the whisker
+ * collision check of WhiskerRobot, which runs every frame, and Line.findintersection.
+ * Drawing itself needs a running JavaFX toolkit and is not covered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhiskerBenchmark {
+    @Param({"4", "64"})
+    public int obstacles;
+
+    private WhiskerRobot robot;
+    private Line first, second, vertical;
+
+    @Setup
+    public void setUp() {
+        SimRandom random = new SimRandom(3);
+        WhiskerRobot.getObstacles().clear();
+        for (int i = 0; i < obstacles; i++) {
+            WhiskerRobot.addObstacle(new Rectangle(random.nextDouble() * 460, random.nextDouble() * 460, 40, 40));
+        }
+        robot = new WhiskerRobot(250, 250, 30, 40, 45);
+        first = new Line(0, 0, 100, 80);
+        second = new Line(0, 90, 100, 10);
+        vertical = new Line(50, 0, 50, 100);
+    }
+
+    @Benchmark
+    public WhiskerRobot checkCollisionAndTurn() {
+        robot.checkCollisionAndTurn(500, 500);
+        return robot;
+    }
+
+    @Benchmark
+    public boolean lineIntersection() {
+        return first.findintersection(second);
+    }
+
+    @Benchmark
+    public boolean verticalLineIntersection() {
+        return first.findintersection(vertical);
+    }
+}